@@ -1,11 +1,14 @@
 package com.party.backend.config;
 
+import com.party.backend.model.User;
 import com.party.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -26,8 +29,19 @@ public class ApplicationConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${auth.bcrypt.strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    // Chamado pelo DaoAuthenticationProvider após um login válido cujo hash tem custo inferior ao configurado.
+    @Bean
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (userDetails, newEncodedPassword) -> {
+            User user = (User) userDetails;
+            userRepository.updatePassword(user.getId(), newEncodedPassword);
+            user.setPassword(newEncodedPassword);
+            return user;
+        };
     }
 
     @Bean
@@ -36,10 +50,11 @@ public class ApplicationConfig {
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService());
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService());
         return authProvider;
     }
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.party.backend.config;
+
+import com.party.backend.model.User;
+import com.party.backend.service.ChatRoomMembershipCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Autoriza SEND e SUBSCRIBE às salas de chat. O simple broker trata os destinos das subscrições como
+ * padrões Ant, por isso /topic/* receberia as mensagens de todas as salas: destinos com wildcards são
+ * recusados e, nos prefixos do broker, só passam as salas do utilizador e os tópicos públicos configurados.
+ * Os destinos /user/** são resolvidos pelo Spring para a sessão de quem subscreve.
+ */
+@Component
+public class ChatRoomAuthorizationInterceptor implements ChannelInterceptor {
+
+    private static final Pattern SEND_ROOM = Pattern.compile("^/app/(\\d+)$");
+    private static final Pattern SUBSCRIBE_ROOM = Pattern.compile("^/topic/(\\d+)$");
+    private static final List<String> BROKER_PREFIXES = List.of("/topic/", "/queue/");
+
+    private final ChatRoomMembershipCache chatRoomMembershipCache;
+    private final Set<String> publicTopics;
+
+    public ChatRoomAuthorizationInterceptor(
+            ChatRoomMembershipCache chatRoomMembershipCache,
+            @Value("${websocket.public-topics:}") Set<String> publicTopics
+    ) {
+        this.chatRoomMembershipCache = chatRoomMembershipCache;
+        this.publicTopics = publicTopics;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor =
+                MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+
+        Pattern roomPattern;
+        if (StompCommand.SEND.equals(accessor.getCommand())) {
+            roomPattern = SEND_ROOM;
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            roomPattern = SUBSCRIBE_ROOM;
+        } else {
+            return message;
+        }
+
+        String destination = accessor.getDestination();
+        if (destination == null || hasPattern(destination)) {
+            throw new AccessDeniedException("Destino inválido: " + destination);
+        }
+
+        Matcher matcher = roomPattern.matcher(destination);
+        if (!matcher.matches()) {
+            // Fora das salas, os prefixos do broker só aceitam subscrições a tópicos públicos; um SEND direto
+            // ao broker saltaria os controllers e entregaria a mensagem sem validação.
+            boolean brokerDestination = BROKER_PREFIXES.stream().anyMatch(destination::startsWith);
+            boolean publicSubscription = StompCommand.SUBSCRIBE.equals(accessor.getCommand())
+                    && publicTopics.contains(destination);
+            if (brokerDestination && !publicSubscription) {
+                throw new AccessDeniedException("Sem permissão para o destino " + destination);
+            }
+            return message;
+        }
+
+        Long bookingId = Long.parseLong(matcher.group(1));
+        User user = accessor.getUser() instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof User principal ? principal : null;
+        if (user == null || !chatRoomMembershipCache.isParticipant(bookingId, user.getId())) {
+            throw new AccessDeniedException("Sem permissão para a sala de chat " + bookingId);
+        }
+        return message;
+    }
+
+    private static boolean hasPattern(String destination) {
+        return destination.indexOf('*') >= 0 || destination.indexOf('?') >= 0 || destination.indexOf('{') >= 0;
+    }
+}
@@ -0,0 +1,68 @@
+package com.party.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Só é ativada quando existe uma réplica configurada; sem ela a DataSource continua a ser a da
+ * auto-configuração. As métricas hikaricp.* de cada pool saem com a tag pool=primary / pool=replica.
+ */
+@Configuration
+@ConditionalOnExpression("!'${spring.datasource.replica.url:}'.isEmpty()")
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            @Value("${spring.datasource.replica.url}") String url,
+            @Value("${spring.datasource.replica.username:${spring.datasource.username}}") String username,
+            @Value("${spring.datasource.replica.password:${spring.datasource.password}}") String password
+    ) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            HikariDataSource replicaDataSource,
+            MeterRegistry meterRegistry,
+            StringRedisTemplate redisTemplate,
+            @Value("${spring.datasource.replica.read-your-writes-ms:5000}") long readYourWritesMs
+    ) {
+        return new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, meterRegistry, redisTemplate, readYourWritesMs);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
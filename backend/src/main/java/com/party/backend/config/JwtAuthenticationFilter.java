@@ -1,6 +1,8 @@
 package com.party.backend.config;
 
 import com.party.backend.service.JwtService;
+import com.party.backend.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -21,7 +23,10 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    public static final String CLAIMS_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".claims";
+
     private final JwtService jwtService;
+    private final TokenRevocationService tokenRevocationService;
     private final UserDetailsService userDetailsService;
 
     @Override
@@ -40,12 +45,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             final String jwt = authHeader.substring(7);
-            final String userEmail = jwtService.extractUsername(jwt);
 
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                final Claims claims = request.getAttribute(CLAIMS_ATTRIBUTE) instanceof Claims parsed
+                        ? parsed
+                        : jwtService.parseClaims(jwt);
+
+                if (!tokenRevocationService.isRevoked(claims.getId())) {
+                    UserDetails userDetails = jwtService.buildPrincipal(claims)
+                            .map(UserDetails.class::cast)
+                            .orElseGet(() -> this.userDetailsService.loadUserByUsername(claims.getSubject()));
 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
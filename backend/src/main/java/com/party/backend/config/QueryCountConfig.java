@@ -0,0 +1,27 @@
+package com.party.backend.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(name = "sql.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryCountConfig {
+
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof QueryCountingDataSource)) {
+                    return new QueryCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,85 @@
+package com.party.backend.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Número e tempo dos statements SQL de cada pedido, por rota, em sql.request.statements / sql.request.time.
+ * Com sql.metrics.response-headers=true (só em dev: a resposta fica em buffer) devolve também os headers
+ * X-SQL-Count e X-SQL-Time-Ms.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "sql.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean responseHeaders;
+
+    public QueryCountFilter(
+            MeterRegistry meterRegistry,
+            @Value("${sql.metrics.response-headers:false}") boolean responseHeaders
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.responseHeaders = responseHeaders;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/ws");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        ContentCachingResponseWrapper bufferedResponse = responseHeaders ? new ContentCachingResponseWrapper(response) : null;
+        try (QueryCounter.Scope scope = QueryCounter.start()) {
+            try {
+                filterChain.doFilter(request, bufferedResponse != null ? bufferedResponse : response);
+            } finally {
+                record(request, scope);
+                if (bufferedResponse != null) {
+                    bufferedResponse.setHeader("X-SQL-Count", String.valueOf(scope.getStatementCount()));
+                    bufferedResponse.setHeader("X-SQL-Time-Ms",
+                            String.valueOf(TimeUnit.NANOSECONDS.toMillis(scope.getElapsedNanos())));
+                    bufferedResponse.copyBodyToResponse();
+                }
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, QueryCounter.Scope scope) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder("sql.request.statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(scope.getStatementCount());
+        Timer.builder("sql.request.time")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(scope.getElapsedNanos(), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,61 @@
+package com.party.backend.config;
+
+/**
+ * Contagem de statements SQL por thread. Cada {@link Scope} aberto acumula os statements executados até ser
+ * fechado; scopes aninhados (um teste dentro de um pedido, por exemplo) contam todos os statements que os atravessam.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    public static Scope start() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static void record(long elapsedNanos) {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.statements++;
+            scope.elapsedNanos += elapsedNanos;
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Scope parent;
+        private int statements;
+        private long elapsedNanos;
+        private boolean closed;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        public int getStatementCount() {
+            return statements;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (CURRENT.get() == this) {
+                if (parent != null) {
+                    CURRENT.set(parent);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        }
+    }
+}
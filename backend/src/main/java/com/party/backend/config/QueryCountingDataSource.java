@@ -0,0 +1,95 @@
+package com.party.backend.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Envolve as ligações e statements JDBC para contar e cronometrar cada execute*() no {@link QueryCounter}
+ * da thread atual. Apanha tanto o SQL do Hibernate como o do JdbcTemplate; um executeBatch conta como um statement.
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+    public QueryCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(super.getConnection(username, password));
+    }
+
+    private static Connection wrapConnection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(
+                QueryCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (isIdentityMethod(method)) {
+                        return identity(proxy, method, args);
+                    }
+                    Object result = invoke(target, method, args);
+                    if (result instanceof CallableStatement statement) {
+                        return wrapStatement(statement, CallableStatement.class);
+                    }
+                    if (result instanceof PreparedStatement statement) {
+                        return wrapStatement(statement, PreparedStatement.class);
+                    }
+                    if (result instanceof Statement statement) {
+                        return wrapStatement(statement, Statement.class);
+                    }
+                    return result;
+                });
+    }
+
+    private static Object wrapStatement(Statement target, Class<? extends Statement> type) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            if (!method.getName().startsWith("execute")) {
+                return invoke(target, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return invoke(target, method, args);
+            } finally {
+                QueryCounter.record(System.nanoTime() - start);
+            }
+        };
+        return Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static boolean isIdentityMethod(Method method) {
+        return method.getDeclaringClass() == Object.class && !method.getName().equals("toString");
+    }
+
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> throw new UnsupportedOperationException(method.getName());
+        };
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.party.backend.config;
+
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RabbitConfig {
+
+    public static final String IMAGE_DERIVATIVES_QUEUE = "media.image-derivatives";
+    public static final String IMAGE_DERIVATIVES_DLQ = "media.image-derivatives.dlq";
+    public static final String VIDEO_THUMBNAILS_QUEUE = "media.video-thumbnails";
+    public static final String VIDEO_THUMBNAILS_DLQ = "media.video-thumbnails.dlq";
+
+    @Bean
+    public Queue imageDerivativesQueue() {
+        return QueueBuilder.durable(IMAGE_DERIVATIVES_QUEUE)
+                .deadLetterExchange("")
+                .deadLetterRoutingKey(IMAGE_DERIVATIVES_DLQ)
+                .build();
+    }
+
+    @Bean
+    public Queue imageDerivativesDeadLetterQueue() {
+        return QueueBuilder.durable(IMAGE_DERIVATIVES_DLQ).build();
+    }
+
+    @Bean
+    public Queue videoThumbnailsQueue() {
+        return QueueBuilder.durable(VIDEO_THUMBNAILS_QUEUE)
+                .deadLetterExchange("")
+                .deadLetterRoutingKey(VIDEO_THUMBNAILS_DLQ)
+                .build();
+    }
+
+    @Bean
+    public Queue videoThumbnailsDeadLetterQueue() {
+        return QueueBuilder.durable(VIDEO_THUMBNAILS_DLQ).build();
+    }
+
+    @Bean
+    public MessageConverter jsonMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+}
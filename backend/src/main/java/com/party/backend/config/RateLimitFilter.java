@@ -0,0 +1,96 @@
+package com.party.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.party.backend.exception.GlobalExceptionHandler;
+import com.party.backend.service.JwtService;
+import com.party.backend.service.RateLimiterService;
+import com.party.backend.service.RateLimiterService.Decision;
+import com.party.backend.service.RateLimiterService.RouteClass;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 10)
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiterService rateLimiterService;
+    private final JwtService jwtService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return HttpMethod.OPTIONS.matches(request.getMethod()) || request.getRequestURI().startsWith("/ws");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        RouteClass routeClass = classify(request.getRequestURI());
+        Decision decision = rateLimiterService.tryConsume(routeClass, resolveIdentity(request, routeClass));
+
+        if (decision.allowed()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        GlobalExceptionHandler.ErrorResponse errorResponse = GlobalExceptionHandler.ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .error("Too Many Requests")
+                .message("Demasiados pedidos, tente novamente dentro de " + decision.retryAfterSeconds() + " segundos")
+                .path(request.getRequestURI())
+                .build();
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getWriter(), errorResponse);
+    }
+
+    private RouteClass classify(String uri) {
+        if (uri.equals("/api/auth/login") || uri.equals("/api/auth/register") || uri.equals("/api/auth/refresh")) {
+            return RouteClass.AUTH;
+        }
+        if (uri.equals("/api/listings/search")) {
+            return RouteClass.SEARCH;
+        }
+        return RouteClass.DEFAULT;
+    }
+
+    // Só um token com assinatura válida identifica o utilizador; caso contrário limita-se por IP.
+    private String resolveIdentity(HttpServletRequest request, RouteClass routeClass) {
+        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (routeClass != RouteClass.AUTH && authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                Claims claims = jwtService.parseClaims(authHeader.substring(7));
+                request.setAttribute(JwtAuthenticationFilter.CLAIMS_ATTRIBUTE, claims);
+                return "user:" + claims.getSubject();
+            } catch (Exception ignored) {
+                // token inválido: tratado como anónimo aqui e rejeitado mais à frente pela cadeia de segurança
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,36 @@
+package com.party.backend.config;
+
+import com.party.backend.service.ChatRoomMembershipCache;
+import com.party.backend.service.TokenRevocationService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+@Configuration
+public class RedisConfig {
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            TokenRevocationService tokenRevocationService,
+            ChatRoomMembershipCache chatRoomMembershipCache
+    ) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> tokenRevocationService.onRevocationMessage(
+                        new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(TokenRevocationService.REVOCATION_CHANNEL)
+        );
+        container.addMessageListener(
+                (message, pattern) -> chatRoomMembershipCache.onEvictionMessage(
+                        new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(ChatRoomMembershipCache.EVICTION_CHANNEL)
+        );
+        return container;
+    }
+}
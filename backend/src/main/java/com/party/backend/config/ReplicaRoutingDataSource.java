@@ -0,0 +1,176 @@
+package com.party.backend.config;
+
+import com.party.backend.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Envia as transações readOnly para a réplica e tudo o resto para o primário. Tem de ficar atrás de um
+ * LazyConnectionDataSourceProxy: só assim a ligação é pedida depois de a transação estar marcada como readOnly.
+ * <p>
+ * Um utilizador que acabou de escrever lê do primário durante uma janela curta (read-your-writes), e se a
+ * réplica falhar as leituras passam para o primário até o health check a voltar a dar como disponível.
+ * A janela é marcada no Redis, para que o pedido seguinte seja respeitado por qualquer nó; a cópia local
+ * só evita a ida ao Redis no nó que fez a escrita. Se o Redis falhar, a leitura vai para o primário.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private interface ConnectionSource {
+        Connection get(DataSource dataSource) throws SQLException;
+    }
+
+    private static final String WRITER_KEY_PREFIX = "datasource:recent-writer:";
+    private static final ThreadLocal<Boolean> PRIMARY_READS = ThreadLocal.withInitial(() -> false);
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final MeterRegistry meterRegistry;
+    private final StringRedisTemplate redisTemplate;
+    private final long readYourWritesMs;
+    private final AtomicBoolean replicaAvailable = new AtomicBoolean(true);
+    private final Map<Long, Long> recentWriters = new ConcurrentHashMap<>();
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, MeterRegistry meterRegistry,
+                                    StringRedisTemplate redisTemplate, long readYourWritesMs) {
+        this.primary = primary;
+        this.replica = replica;
+        this.meterRegistry = meterRegistry;
+        this.redisTemplate = redisTemplate;
+        this.readYourWritesMs = readYourWritesMs;
+        meterRegistry.gauge("datasource.replica.available", replicaAvailable, available -> available.get() ? 1 : 0);
+    }
+
+    /**
+     * Executa leituras que não toleram o atraso da réplica (por exemplo, dados que vão ser postos em cache).
+     * Só afeta ligações pedidas dentro de work, pelo que deve abrir a sua própria transação. Sem réplica
+     * configurada não tem efeito.
+     */
+    public static <T> T readFromPrimary(Supplier<T> work) {
+        boolean previous = PRIMARY_READS.get();
+        PRIMARY_READS.set(true);
+        try {
+            return work.get();
+        } finally {
+            PRIMARY_READS.set(previous);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        Long userId = currentUserId();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWrite(userId);
+            return fromPrimary(source, "read-write");
+        }
+        if (PRIMARY_READS.get()) {
+            return fromPrimary(source, "primary-read");
+        }
+        if (userId != null && wroteRecently(userId)) {
+            return fromPrimary(source, "read-your-writes");
+        }
+        if (!replicaAvailable.get()) {
+            return fromPrimary(source, "replica-down");
+        }
+        try {
+            Connection connection = source.get(replica);
+            meterRegistry.counter("datasource.routing", "role", "replica", "reason", "read-only").increment();
+            return connection;
+        } catch (SQLException e) {
+            if (replicaAvailable.compareAndSet(true, false)) {
+                log.warn("Réplica indisponível, leituras redirecionadas para o primário: {}", e.getMessage());
+            }
+            return fromPrimary(source, "replica-down");
+        }
+    }
+
+    private Connection fromPrimary(ConnectionSource source, String reason) throws SQLException {
+        meterRegistry.counter("datasource.routing", "role", "primary", "reason", reason).increment();
+        return source.get(primary);
+    }
+
+    private void trackWrite(Long userId) {
+        if (userId == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(userId, System.currentTimeMillis() + readYourWritesMs);
+                try {
+                    redisTemplate.opsForValue().set(WRITER_KEY_PREFIX + userId, "1", Duration.ofMillis(readYourWritesMs));
+                } catch (RuntimeException e) {
+                    meterRegistry.counter("datasource.read-your-writes.redis-failures").increment();
+                    log.warn("Falha ao marcar escrita recente do utilizador {} no Redis: {}", userId, e.getMessage());
+                }
+            }
+        });
+    }
+
+    private boolean wroteRecently(Long userId) {
+        Long until = recentWriters.get(userId);
+        if (until != null && until > System.currentTimeMillis()) {
+            return true;
+        }
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(WRITER_KEY_PREFIX + userId));
+        } catch (RuntimeException e) {
+            // Sem saber se o utilizador escreveu noutro nó, a leitura segura é a do primário.
+            meterRegistry.counter("datasource.read-your-writes.redis-failures").increment();
+            return true;
+        }
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            return user.getId();
+        }
+        return null;
+    }
+
+    @Scheduled(fixedDelayString = "${spring.datasource.replica.health-check-interval-ms:5000}")
+    public void checkReplica() {
+        long now = System.currentTimeMillis();
+        recentWriters.values().removeIf(until -> until <= now);
+
+        boolean healthy;
+        try (Connection connection = replica.getConnection()) {
+            healthy = connection.isValid(1);
+        } catch (SQLException e) {
+            healthy = false;
+        }
+        if (replicaAvailable.getAndSet(healthy) != healthy) {
+            if (healthy) {
+                log.info("Réplica disponível de novo, leituras readOnly voltam à réplica");
+            } else {
+                log.warn("Réplica falhou o health check, leituras redirecionadas para o primário");
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.party.backend.config;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.codec.SerializationCodec;
+import org.redisson.config.Config;
+import org.redisson.jcache.JCachingProvider;
+import org.redisson.jcache.configuration.RedissonConfiguration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import javax.cache.expiry.CreatedExpiryPolicy;
+import javax.cache.expiry.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regiões da cache de segundo nível do Hibernate (JCache sobre Redisson). Com missing_cache_strategy=fail
+ * uma entidade anotada com @Cache sem região definida aqui impede o arranque, em vez de criar uma cache
+ * sem expiração. A região de timestamps não pode expirar: é ela que invalida a cache de queries.
+ * <p>
+ * As regiões vivem no Redis e são partilhadas por todos os nós, por isso uma escrita num nó (por exemplo
+ * a mudança de password ou de role de um User) invalida a entrada para todo o cluster.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    private static final String USER_REGION = "user";
+    private static final String AMENITY_REGION = "amenity";
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "shutdown")
+    public RedissonClient hibernateCacheRedissonClient(
+            @Value("${spring.data.redis.host:localhost}") String host,
+            @Value("${spring.data.redis.port:6379}") int port,
+            @Value("${spring.data.redis.password:}") String password
+    ) {
+        Config config = new Config();
+        // As entradas do Hibernate são Serializable; a serialização Java evita surpresas com classes sem construtor vazio.
+        config.setCodec(new SerializationCodec());
+        config.useSingleServer()
+                .setAddress("redis://" + host + ":" + port)
+                .setPassword(StringUtils.hasText(password) ? password : null);
+        return Redisson.create(config);
+    }
+
+    // O CacheManager do provider é partilhado por classloader (por exemplo entre contextos de teste), por isso
+    // as regiões já existentes são reaproveitadas e o bean não o fecha.
+    @Bean(destroyMethod = "")
+    public CacheManager hibernateCacheManager(
+            RedissonClient hibernateCacheRedissonClient,
+            @Value("${second-level-cache.user.ttl-minutes:10}") long userTtlMinutes,
+            @Value("${second-level-cache.query.ttl-minutes:10}") long queryTtlMinutes
+    ) {
+        CacheManager cacheManager = Caching.getCachingProvider(JCachingProvider.class.getName()).getCacheManager();
+        createRegion(cacheManager, hibernateCacheRedissonClient, USER_REGION, userTtlMinutes);
+        createRegion(cacheManager, hibernateCacheRedissonClient, AMENITY_REGION, null);
+        createRegion(cacheManager, hibernateCacheRedissonClient, QUERY_RESULTS_REGION, queryTtlMinutes);
+        createRegion(cacheManager, hibernateCacheRedissonClient, UPDATE_TIMESTAMPS_REGION, null);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static void createRegion(CacheManager cacheManager, RedissonClient redisson, String name, Long ttlMinutes) {
+        if (cacheManager.getCache(name) != null) {
+            return;
+        }
+        MutableConfiguration<Object, Object> configuration = new MutableConfiguration<>();
+        if (ttlMinutes != null) {
+            configuration.setExpiryPolicyFactory(CreatedExpiryPolicy.factoryOf(new Duration(TimeUnit.MINUTES, ttlMinutes)));
+        }
+        cacheManager.createCache(name, RedissonConfiguration.fromInstance(redisson, configuration));
+    }
+}
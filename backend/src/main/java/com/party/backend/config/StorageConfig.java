@@ -7,6 +7,8 @@ import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 import java.net.URI;
 
@@ -25,6 +27,9 @@ public class StorageConfig {
     @Value("${aws.s3.region}")
     private String region; // us-east-1
 
+    @Value("${aws.s3.public-url}")
+    private String publicUrl;
+
     @Bean
     public S3Client s3Client() {
         return S3Client.builder()
@@ -36,4 +41,19 @@ public class StorageConfig {
                 .forcePathStyle(true)
                 .build();
     }
-}
\ No newline at end of file
+
+    // Os URLs assinados são usados pelo browser, por isso apontam para o endpoint público.
+    @Bean
+    public S3Presigner s3Presigner() {
+        return S3Presigner.builder()
+                .endpointOverride(URI.create(publicUrl))
+                .region(Region.of(region))
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create(accessKey, secretKey)
+                ))
+                .serviceConfiguration(S3Configuration.builder()
+                        .pathStyleAccessEnabled(true)
+                        .build())
+                .build();
+    }
+}
@@ -1,6 +1,8 @@
 package com.party.backend.config;
 
 import com.party.backend.service.JwtService;
+import com.party.backend.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
@@ -9,7 +11,6 @@ import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
@@ -19,6 +20,7 @@ import org.springframework.stereotype.Component;
 public class WebSocketAuthInterceptor implements ChannelInterceptor {
 
     private final JwtService jwtService;
+    private final TokenRevocationService tokenRevocationService;
     private final UserDetailsService userDetailsService;
 
     @Override
@@ -31,19 +33,19 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
 
             if (authHeader != null && authHeader.startsWith("Bearer ")) {
                 String jwt = authHeader.substring(7);
-                String userEmail = jwtService.extractUsername(jwt);
-
-                if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-                    if (jwtService.isTokenValid(jwt, userDetails)) {
-                        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                userDetails.getAuthorities()
-                        );
-                        accessor.setUser(authToken);
-                    }
+                Claims claims = jwtService.parseClaims(jwt);
+                if (tokenRevocationService.isRevoked(claims.getId())) {
+                    return message;
                 }
+                UserDetails userDetails = jwtService.buildPrincipal(claims)
+                        .map(UserDetails.class::cast)
+                        .orElseGet(() -> this.userDetailsService.loadUserByUsername(claims.getSubject()));
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities()
+                );
+                accessor.setUser(authToken);
             }
         }
         return message;
@@ -14,6 +14,8 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final WebSocketAuthInterceptor authInterceptor;
+    private final ChatRoomAuthorizationInterceptor chatRoomAuthorizationInterceptor;
+    private final WebSocketSecurityContextInterceptor securityContextInterceptor;
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
@@ -31,7 +33,7 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration){
-        registration.interceptors(authInterceptor);
+        registration.interceptors(authInterceptor, chatRoomAuthorizationInterceptor, securityContextInterceptor);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.party.backend.config;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Os handlers STOMP correm nas threads do clientInboundChannel, sem o SecurityContext do pedido HTTP.
+ * Coloca lá o utilizador da sessão durante o processamento da mensagem, para que o código que o lê do
+ * SecurityContextHolder (como o read-your-writes do ReplicaRoutingDataSource) funcione também no chat.
+ */
+@Component
+public class WebSocketSecurityContextInterceptor implements ExecutorChannelInterceptor {
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        if (SimpMessageHeaderAccessor.getUser(message.getHeaders()) instanceof Authentication authentication) {
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(authentication);
+            SecurityContextHolder.setContext(context);
+        }
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        SecurityContextHolder.clearContext();
+    }
+}
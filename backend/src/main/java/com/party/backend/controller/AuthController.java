@@ -3,12 +3,14 @@ package com.party.backend.controller;
 
 import com.party.backend.dto.auth.AuthenticationResponse;
 import com.party.backend.dto.auth.LoginRequestDTO;
+import com.party.backend.dto.auth.RefreshTokenRequestDTO;
 import com.party.backend.dto.auth.RegisterRequestDTO;
 import com.party.backend.service.AuthenticationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -28,4 +30,19 @@ public class AuthController {
     public ResponseEntity<AuthenticationResponse> login( @RequestBody LoginRequestDTO request ){
         return ResponseEntity.ok(authService.login(request));
     }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthenticationResponse> refresh( @RequestBody RefreshTokenRequestDTO request ){
+        return ResponseEntity.ok(authService.refresh(request));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestBody(required = false) RefreshTokenRequestDTO request
+    ){
+        String accessToken = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+        authService.logout(accessToken, request);
+        return ResponseEntity.noContent().build();
+    }
 }
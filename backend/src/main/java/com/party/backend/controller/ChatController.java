@@ -2,20 +2,28 @@ package com.party.backend.controller;
 
 import com.party.backend.dto.ChatMessageDTO;
 import com.party.backend.service.ChatService;
+import com.party.backend.service.ChatWriteBehindService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import com.party.backend.model.User;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @Controller
@@ -25,23 +33,46 @@ import java.util.List;
 public class ChatController {
 
     private final ChatService chatService;
+    private final ChatWriteBehindService chatWriteBehindService;
+    private final SimpMessagingTemplate messagingTemplate;
 
     @MessageMapping("/{roomId}")
-    @SendTo("/topic/{roomId}")
-    public ChatMessageDTO sendMessage(
+    public void sendMessage(
             @Payload ChatMessageDTO chatMessage,
-            @DestinationVariable String roomId
+            @DestinationVariable String roomId,
+            Principal principal
     ) {
         Long bookingId = Long.parseLong(roomId);
+        User sender = (User) ((Authentication) principal).getPrincipal();
+        chatMessage.setSenderId(sender.getId());
+        chatMessage.setSenderName(sender.getFirstName());
+        if (chatWriteBehindService.isEnabled()) {
+            chatMessage.setTimestamp(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+            messagingTemplate.convertAndSend("/topic/" + roomId, chatMessage);
+            chatWriteBehindService.enqueue(chatMessage, bookingId);
+            return;
+        }
         chatService.saveMessage(chatMessage, bookingId);
-        return chatMessage;
+        messagingTemplate.convertAndSend("/topic/" + roomId, chatMessage);
     }
 
     @GetMapping("/{bookingId}")
     public ResponseEntity<List<ChatMessageDTO>> getChatHistory(
             @PathVariable Long bookingId,
+            @RequestParam(value = "before", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+            @RequestParam(value = "size", defaultValue = "50") int size,
             @AuthenticationPrincipal User currentUser
     ) {
-        return ResponseEntity.ok(chatService.getMessageHistory(bookingId, currentUser));
+        return ResponseEntity.ok(chatService.getMessageHistory(bookingId, currentUser, before, size));
+    }
+
+    @PostMapping("/{bookingId}/read")
+    public ResponseEntity<Void> markAsRead(
+            @PathVariable Long bookingId,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        chatService.markConversationAsRead(bookingId, currentUser);
+        return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
@@ -2,10 +2,19 @@ package com.party.backend.controller;
 
 import com.party.backend.dto.HostListingDTO;
 import com.party.backend.dto.booking.BookingResponseDTO;
+import com.party.backend.dto.listing.ImageUploadResultDTO;
+import com.party.backend.dto.listing.ListingImportResultDTO;
 import com.party.backend.dto.listing.ListingRequestDTO;
 import com.party.backend.dto.listing.ListingResponseDTO;
+import com.party.backend.dto.media.MediaUploadCompleteRequestDTO;
+import com.party.backend.dto.media.MediaUploadRequestDTO;
+import com.party.backend.dto.media.MediaUploadResponseDTO;
 import com.party.backend.model.User;
+import com.party.backend.service.ListingImportService;
 import com.party.backend.service.ListingService;
+import com.party.backend.service.MediaUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -14,6 +23,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import com.party.backend.service.BookingService;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -24,6 +34,8 @@ public class ListingController {
 
     private final ListingService listingService;
     private final BookingService bookingService;
+    private final MediaUploadService mediaUploadService;
+    private final ListingImportService listingImportService;
 
     @GetMapping
     public ResponseEntity<List<ListingResponseDTO>> getAllListings() {
@@ -41,6 +53,14 @@ public class ListingController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<ListingImportResultDTO> importListings(
+            HttpServletRequest request,
+            @AuthenticationPrincipal User currentUser
+    ) throws IOException {
+        return ResponseEntity.ok(listingImportService.importListings(request.getInputStream(), request.getContentType(), currentUser));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ListingResponseDTO> updateListing(
             @PathVariable Long id,
@@ -51,6 +71,16 @@ public class ListingController {
         return ResponseEntity.ok(response);
     }
 
+    @PatchMapping("/{id}")
+    public ResponseEntity<ListingResponseDTO> patchListing(
+            @PathVariable Long id,
+            @RequestBody ListingRequestDTO request,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        ListingResponseDTO response = listingService.patchListing(id, request, currentUser);
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteListing(
             @PathVariable Long id,
@@ -70,6 +100,15 @@ public class ListingController {
         return new ResponseEntity<>(Map.of("imageUrl", imageUrl), HttpStatus.CREATED);
     }
 
+    @PostMapping("/{id}/images/batch")
+    public ResponseEntity<List<ImageUploadResultDTO>> uploadImages(
+            @PathVariable Long id,
+            @RequestParam("files") List<MultipartFile> files,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        return new ResponseEntity<>(mediaUploadService.uploadImages(id, files, currentUser), HttpStatus.CREATED);
+    }
+
     @PostMapping("/{id}/videos")
     public ResponseEntity<?> uploadVideo(
             @PathVariable Long id,
@@ -80,6 +119,42 @@ public class ListingController {
         return new ResponseEntity<>(Map.of("videoUrl", videoUrl), HttpStatus.CREATED);
     }
 
+    @PutMapping("/{id}/videos/stream")
+    public ResponseEntity<?> streamVideo(
+            @PathVariable Long id,
+            HttpServletRequest request,
+            @AuthenticationPrincipal User currentUser
+    ) throws IOException {
+        String videoUrl = mediaUploadService.uploadStream(
+                id,
+                MediaUploadRequestDTO.MediaKind.VIDEO,
+                request.getContentType(),
+                request.getContentLengthLong(),
+                request.getInputStream(),
+                currentUser
+        );
+        return new ResponseEntity<>(Map.of("videoUrl", videoUrl), HttpStatus.CREATED);
+    }
+
+    @PostMapping("/{id}/media/uploads")
+    public ResponseEntity<MediaUploadResponseDTO> createMediaUpload(
+            @PathVariable Long id,
+            @Valid @RequestBody MediaUploadRequestDTO request,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        return new ResponseEntity<>(mediaUploadService.createUpload(id, request, currentUser), HttpStatus.CREATED);
+    }
+
+    @PostMapping("/{id}/media/uploads/complete")
+    public ResponseEntity<?> completeMediaUpload(
+            @PathVariable Long id,
+            @Valid @RequestBody MediaUploadCompleteRequestDTO request,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        String url = mediaUploadService.completeUpload(id, request, currentUser);
+        return new ResponseEntity<>(Map.of("url", url), HttpStatus.CREATED);
+    }
+
     @GetMapping("/{listingId}/bookings")
     public ResponseEntity<List<BookingResponseDTO>> getBookingsForListing(
             @PathVariable Long listingId,
@@ -1,11 +1,18 @@
 package com.party.backend.controller;
 
+import com.party.backend.dto.media.MediaUploadCompleteRequestDTO;
+import com.party.backend.dto.media.MediaUploadRequestDTO;
+import com.party.backend.dto.media.MediaUploadResponseDTO;
 import com.party.backend.model.User;
+import com.party.backend.service.MediaUploadService;
 import com.party.backend.service.StorageService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -19,6 +26,7 @@ import java.util.Map;
 public class MediaController {
 
     private final StorageService storageService;
+    private final MediaUploadService mediaUploadService;
 
     @PostMapping("/upload")
     public ResponseEntity<?> uploadMedia(
@@ -28,4 +36,21 @@ public class MediaController {
         String fileUrl = storageService.uploadFile(file);
         return ResponseEntity.ok(Map.of("url", fileUrl));
     }
-}
\ No newline at end of file
+
+    @PostMapping("/uploads")
+    public ResponseEntity<MediaUploadResponseDTO> createUpload(
+            @Valid @RequestBody MediaUploadRequestDTO request,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        return new ResponseEntity<>(mediaUploadService.createUpload(null, request, currentUser), HttpStatus.CREATED);
+    }
+
+    @PostMapping("/uploads/complete")
+    public ResponseEntity<?> completeUpload(
+            @Valid @RequestBody MediaUploadCompleteRequestDTO request,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        String fileUrl = mediaUploadService.completeUpload(null, request, currentUser);
+        return ResponseEntity.ok(Map.of("url", fileUrl));
+    }
+}
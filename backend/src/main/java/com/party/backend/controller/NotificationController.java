@@ -0,0 +1,49 @@
+package com.party.backend.controller;
+
+import com.party.backend.dto.NotificationDTO;
+import com.party.backend.model.User;
+import com.party.backend.service.NotificationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/notifications")
+@RequiredArgsConstructor
+public class NotificationController {
+
+    private final NotificationService notificationService;
+
+    @GetMapping
+    public ResponseEntity<List<NotificationDTO>> getNotifications(
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        return ResponseEntity.ok(notificationService.getNotifications(currentUser, page, size));
+    }
+
+    @GetMapping("/unread-count")
+    public ResponseEntity<?> getUnreadCount(@AuthenticationPrincipal User currentUser) {
+        return ResponseEntity.ok(Map.of("unreadCount", notificationService.getUnreadCount(currentUser)));
+    }
+
+    @PostMapping("/{id}/read")
+    public ResponseEntity<Void> markAsRead(
+            @PathVariable Long id,
+            @AuthenticationPrincipal User currentUser
+    ) {
+        notificationService.markAsRead(id, currentUser);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/read-all")
+    public ResponseEntity<Void> markAllAsRead(@AuthenticationPrincipal User currentUser) {
+        notificationService.markAllAsRead(currentUser);
+        return ResponseEntity.noContent().build();
+    }
+}
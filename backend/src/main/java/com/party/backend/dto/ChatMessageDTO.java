@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -11,5 +13,6 @@ public class ChatMessageDTO {
     private String senderName;
     private Long senderId;
     private String content;
+    private LocalDateTime timestamp;
 
 }
\ No newline at end of file
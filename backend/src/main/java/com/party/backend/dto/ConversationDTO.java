@@ -19,7 +19,7 @@ public class ConversationDTO {
     private String otherUserName;
     private String status;
 
-    // Campos opcionais para o futuro (chat)
+    private String lastMessagePreview;
     private LocalDateTime lastMessageTime;
     private Integer unreadCount;
 }
\ No newline at end of file
@@ -1,17 +1,45 @@
 package com.party.backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
+
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class NotificationDTO {
 
+    public static final String COUNT_PLACEHOLDER = "{count}";
+    public static final String DEFAULT_SUMMARY = COUNT_PLACEHOLDER + " novas notificações";
+
+    private Long id;
     private String message;
     private String link;
+    private int count = 1;
+    private boolean read;
+    private LocalDateTime createdAt;
+
+    // Texto usado quando várias notificações com o mesmo link são agregadas; {count} é substituído pelo total.
+    @JsonIgnore
+    private String summary;
+
+    public NotificationDTO(String message, String link) {
+        this.message = message;
+        this.link = link;
+    }
+
+    public NotificationDTO(String message, String summary, String link) {
+        this(message, link);
+        this.summary = summary;
+    }
+
+    public NotificationDTO(Long id, String message, String link, int count, boolean read, LocalDateTime createdAt) {
+        this(id, message, link, count, read, createdAt, null);
+    }
 
 }
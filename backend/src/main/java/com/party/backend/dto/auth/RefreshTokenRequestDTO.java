@@ -0,0 +1,16 @@
+package com.party.backend.dto.auth;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RefreshTokenRequestDTO {
+
+    private String refreshToken;
+
+}
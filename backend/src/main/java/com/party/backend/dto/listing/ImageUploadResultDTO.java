@@ -0,0 +1,24 @@
+package com.party.backend.dto.listing;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageUploadResultDTO {
+
+    private String fileName;
+    private boolean success;
+    private String imageUrl;
+    private String error;
+
+    public static ImageUploadResultDTO uploaded(String fileName, String imageUrl) {
+        return new ImageUploadResultDTO(fileName, true, imageUrl, null);
+    }
+
+    public static ImageUploadResultDTO failed(String fileName, String error) {
+        return new ImageUploadResultDTO(fileName, false, null, error);
+    }
+}
@@ -0,0 +1,30 @@
+package com.party.backend.dto.listing;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ListingImportResultDTO {
+
+    private int imported;
+    private int failed;
+    private long durationMs;
+    private double rowsPerSecond;
+    private List<RowError> errors;
+    private boolean errorsTruncated;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
@@ -1,8 +1,10 @@
 package com.party.backend.dto.listing;
 
+import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -13,6 +15,7 @@ import java.util.Set;
 public class ListingRequestDTO {
 
     @NotBlank(message = "O título é obrigatório")
+    @Size(max = 255, message = "O título não pode ter mais de 255 caracteres")
     private String title;
 
     @NotBlank(message = "A descrição é obrigatória")
@@ -23,6 +26,7 @@ public class ListingRequestDTO {
 
     @NotNull(message = "O preço é obrigatório")
     @Min(value = 0, message = "O preço não pode ser negativo")
+    @DecimalMax(value = "99999999.99", message = "O preço não pode ser superior a 99999999.99")
     private BigDecimal price;
 
     @NotNull(message = "O número máximo de hóspedes é obrigatório")
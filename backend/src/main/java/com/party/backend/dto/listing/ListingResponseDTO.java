@@ -19,5 +19,6 @@ public class ListingResponseDTO {
     private List<String> imageUrls;
     private List<String> amenities;
     private List<String> videoUrls;
+    private String thumbnailUrl;
     private Long hostId;
 }
@@ -0,0 +1,4 @@
+package com.party.backend.dto.media;
+
+public record ImageDerivativeMessage(Long imageId, String imageUrl) {
+}
@@ -0,0 +1,12 @@
+package com.party.backend.dto.media;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class MediaUploadCompleteRequestDTO {
+
+    @NotBlank(message = "A chave do upload é obrigatória")
+    private String key;
+
+}
@@ -0,0 +1,24 @@
+package com.party.backend.dto.media;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+@Data
+public class MediaUploadRequestDTO {
+
+    @NotNull(message = "O tipo de media é obrigatório")
+    private MediaKind kind;
+
+    @NotBlank(message = "O content-type é obrigatório")
+    private String contentType;
+
+    @NotNull(message = "O tamanho do ficheiro é obrigatório")
+    @Positive(message = "O tamanho do ficheiro deve ser positivo")
+    private Long size;
+
+    public enum MediaKind {
+        IMAGE, VIDEO
+    }
+}
@@ -0,0 +1,24 @@
+package com.party.backend.dto.media;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MediaUploadResponseDTO {
+
+    private String key;
+    private String uploadUrl;
+    private String method;
+    private Map<String, String> headers;
+    private Instant expiresAt;
+    private String publicUrl;
+
+}
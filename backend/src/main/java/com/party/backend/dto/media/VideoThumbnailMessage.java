@@ -0,0 +1,4 @@
+package com.party.backend.dto.media;
+
+public record VideoThumbnailMessage(Long videoId, String videoUrl) {
+}
@@ -3,11 +3,14 @@ package com.party.backend.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Data
 @NoArgsConstructor
 @Table(name="amenity")
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "amenity")
 public class Amenity {
 
     @Id
@@ -19,7 +19,8 @@ import java.util.Set;
 public class Booking {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_id_seq")
+    @SequenceGenerator(name = "booking_id_seq", sequenceName = "booking_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "check_in_date", nullable = false)
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Getter
 @Setter
@@ -14,13 +15,14 @@ import java.time.LocalDateTime;
 public class ChatMessage {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chat_message_id_seq")
+    @SequenceGenerator(name = "chat_message_id_seq", sequenceName = "chat_message_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
     private String content;
 
-    @Column(updatable = false)
+    @Column(nullable = false, updatable = false)
     private LocalDateTime timestamp;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -33,6 +35,7 @@ public class ChatMessage {
 
     @PrePersist
     protected void onCreate() {
-        timestamp = LocalDateTime.now();
+        // Precisão do Postgres: o mesmo valor tem de sair da BD e da cache de mensagens recentes.
+        timestamp = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
     }
 }
\ No newline at end of file
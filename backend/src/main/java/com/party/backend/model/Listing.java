@@ -25,7 +25,8 @@ import java.util.Set;
 public class Listing {
 
     @Id
-    @GeneratedValue(strategy= GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "listing_id_seq")
+    @SequenceGenerator(name = "listing_id_seq", sequenceName = "listing_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -13,12 +13,22 @@ import lombok.*;
 public class ListingImage {
 
     @Id
-    @GeneratedValue(strategy= GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "listing_image_id_seq")
+    @SequenceGenerator(name = "listing_image_id_seq", sequenceName = "listing_image_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "image_url", nullable = false)
     private String imageUrl;
 
+    @Column(name = "thumbnail_url")
+    private String thumbnailUrl;
+
+    @Column(name = "medium_url")
+    private String mediumUrl;
+
+    @Column(name = "large_url")
+    private String largeUrl;
+
     @Column(name = "is_cover")
     private boolean isCover;
 
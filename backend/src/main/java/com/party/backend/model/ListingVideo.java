@@ -13,7 +13,8 @@ import lombok.*;
 public class ListingVideo {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "listing_video_id_seq")
+    @SequenceGenerator(name = "listing_video_id_seq", sequenceName = "listing_video_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "video_url", nullable = false)
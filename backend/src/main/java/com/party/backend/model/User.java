@@ -3,6 +3,8 @@ package com.party.backend.model;
 import com.party.backend.model.enums.Role;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -19,6 +21,7 @@ import java.util.Set;
 @ToString
 @Entity
 @Table(name="users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 public class User implements UserDetails {
 
     @Id
@@ -2,8 +2,11 @@ package com.party.backend.repository;
 
 
 import com.party.backend.model.Amenity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -13,6 +16,15 @@ import java.util.Set;
 @Repository
 public interface AmenityRepository extends JpaRepository<Amenity, Integer> {
 
+    // Queries em cache: os ids ficam na região de queries e as entidades vêm da região "amenity".
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Amenity> findAll();
+
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Amenity> findAllById(Iterable<Integer> ids);
+
     interface AmenityProjection {
         Long getListingId();
         String getAmenityName();
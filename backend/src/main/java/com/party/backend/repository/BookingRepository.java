@@ -1,23 +1,35 @@
 package com.party.backend.repository;
 
 import com.party.backend.model.Booking;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    List<Booking> findByUserId(Long userId);
+    @Query("SELECT b FROM Booking b " +
+            "JOIN FETCH b.listing " +
+            "JOIN FETCH b.user " +
+            "WHERE b.user.id = :userId")
+    List<Booking> findByUserId(@Param("userId") Long userId);
 
-    List<Booking> findByListingId(Long listingId);
+    @Query("SELECT b FROM Booking b " +
+            "JOIN FETCH b.listing " +
+            "JOIN FETCH b.user " +
+            "WHERE b.listing.id = :listingId")
+    List<Booking> findByListingId(@Param("listingId") Long listingId);
 
     List<Booking> findByListingIdAndStatus(Long listingId, String status);
 
@@ -31,10 +43,26 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             @Param("checkOutDate") LocalDate checkOutDate
     );
 
+    // Os query spaces limitam a invalidação da cache de segundo nível às tabelas afetadas; sem eles um
+    // executeUpdate nativo esvazia todas as regiões.
     @Modifying
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "booking"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "chat_message"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "chat_read_marker")
+    })
     @Query(value = "DELETE FROM booking WHERE listing_id = :listingId", nativeQuery = true)
     void deleteByListingId(@Param("listingId") Long listingId);
 
+    @Modifying
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "booking"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "chat_message"),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "chat_read_marker")
+    })
+    @Query(value = "DELETE FROM booking WHERE id = :bookingId", nativeQuery = true)
+    void deleteBookingById(@Param("bookingId") Long bookingId);
+
     interface BookingSummaryProjection {
         Long getId();
         Long getListingId();
@@ -63,11 +91,61 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "WHERE b.id = :bookingId")
     Optional<Booking> findByIdWithDetails(@Param("bookingId") Long bookingId);
 
-    @Query("SELECT DISTINCT b FROM Booking b " +
-            "JOIN FETCH b.user u " +
-            "JOIN FETCH b.listing l " +
-            "JOIN FETCH l.host h " +
-            "WHERE u.id = :userId OR h.id = :userId " +
-            "ORDER BY b.checkInDate DESC")
-    List<Booking> findConversationsForUser(@Param("userId") Long userId);
+    interface ChatRoomMembersProjection {
+        Long getClientId();
+        String getClientUsername();
+        Long getHostId();
+        String getHostUsername();
+    }
+
+    @Query("SELECT c.id as clientId, c.email as clientUsername, h.id as hostId, h.email as hostUsername " +
+            "FROM Booking b JOIN b.user c JOIN b.listing l JOIN l.host h " +
+            "WHERE b.id = :bookingId")
+    Optional<ChatRoomMembersProjection> findChatRoomMembers(@Param("bookingId") Long bookingId);
+
+    @Query("SELECT b.id FROM Booking b WHERE b.listing.id = :listingId")
+    List<Long> findIdsByListingId(@Param("listingId") Long listingId);
+
+    interface ConversationProjection {
+        Long getBookingId();
+        String getListingTitle();
+        String getListingLocation();
+        LocalDate getCheckInDate();
+        LocalDate getCheckOutDate();
+        String getStatus();
+        Long getClientId();
+        String getClientFirstName();
+        String getClientLastName();
+        String getHostFirstName();
+        String getHostLastName();
+        String getLastMessagePreview();
+        LocalDateTime getLastMessageTime();
+        Integer getUnreadCount();
+    }
+
+    @Query(value = "SELECT b.id AS bookingId, l.title AS listingTitle, l.location AS listingLocation, " +
+            "b.check_in_date AS checkInDate, b.check_out_date AS checkOutDate, b.status AS status, " +
+            "c.id AS clientId, c.first_name AS clientFirstName, c.last_name AS clientLastName, " +
+            "h.first_name AS hostFirstName, h.last_name AS hostLastName, " +
+            "lm.preview AS lastMessagePreview, lm.timestamp AS lastMessageTime, " +
+            "CAST(COALESCE(unread.total, 0) AS INTEGER) AS unreadCount " +
+            "FROM booking b " +
+            "JOIN listing l ON l.id = b.listing_id " +
+            "JOIN users c ON c.id = b.user_id " +
+            "JOIN users h ON h.id = l.host_id " +
+            "LEFT JOIN chat_read_marker rm ON rm.booking_id = b.id AND rm.user_id = :userId " +
+            "LEFT JOIN LATERAL (" +
+            "  SELECT LEFT(m.content, 100) AS preview, m.timestamp FROM chat_message m " +
+            "  WHERE m.booking_id = b.id ORDER BY m.timestamp DESC, m.id DESC LIMIT 1" +
+            ") lm ON true " +
+            "LEFT JOIN LATERAL (" +
+            "  SELECT COUNT(*) AS total FROM chat_message m " +
+            "  WHERE m.booking_id = b.id " +
+            "  AND (rm.booking_id IS NULL OR (m.timestamp >= rm.last_read_timestamp " +
+            "    AND (m.timestamp, m.id) > (rm.last_read_timestamp, rm.last_read_message_id))) " +
+            "  AND m.sender_id IS DISTINCT FROM :userId" +
+            ") unread ON true " +
+            "WHERE b.user_id = :userId OR l.host_id = :userId " +
+            "ORDER BY COALESCE(lm.timestamp, b.created_at) DESC", nativeQuery = true)
+    List<ConversationProjection> findConversationSummariesForUser(@Param("userId") Long userId);
 }
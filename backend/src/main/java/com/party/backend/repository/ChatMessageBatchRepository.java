@@ -0,0 +1,69 @@
+package com.party.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class ChatMessageBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO chat_message (id, booking_id, sender_id, content, timestamp) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PooledSequenceRepository pooledSequenceRepository;
+
+    public record PendingChatMessage(
+            Long bookingId,
+            Long senderId,
+            String senderName,
+            String content,
+            LocalDateTime timestamp
+    ) {
+    }
+
+    public List<Long> nextIds(int count) {
+        return pooledSequenceRepository.nextIds("chat_message_id_seq", count);
+    }
+
+    public void insertBatch(List<Long> ids, List<PendingChatMessage> messages) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                PendingChatMessage message = messages.get(i);
+                ps.setLong(1, ids.get(i));
+                ps.setLong(2, message.bookingId());
+                if (message.senderId() != null) {
+                    ps.setLong(3, message.senderId());
+                } else {
+                    ps.setNull(3, Types.BIGINT);
+                }
+                ps.setString(4, message.content());
+                ps.setTimestamp(5, Timestamp.valueOf(message.timestamp()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return messages.size();
+            }
+        });
+    }
+
+    public void insert(Long id, PendingChatMessage message) {
+        jdbcTemplate.update(INSERT_SQL,
+                id,
+                message.bookingId(),
+                message.senderId(),
+                message.content(),
+                Timestamp.valueOf(message.timestamp()));
+    }
+}
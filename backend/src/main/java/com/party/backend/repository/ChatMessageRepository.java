@@ -1,13 +1,44 @@
 package com.party.backend.repository;
 
 import com.party.backend.model.ChatMessage;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
 
-    List<ChatMessage> findByBookingIdOrderByTimestampAsc(Long bookingId);
+    @Query("SELECT m FROM ChatMessage m LEFT JOIN FETCH m.sender " +
+            "WHERE m.booking.id = :bookingId ORDER BY m.timestamp DESC")
+    List<ChatMessage> findLatestByBookingId(@Param("bookingId") Long bookingId, Pageable pageable);
+
+    @Query("SELECT m FROM ChatMessage m LEFT JOIN FETCH m.sender " +
+            "WHERE m.booking.id = :bookingId AND m.timestamp < :before ORDER BY m.timestamp DESC")
+    List<ChatMessage> findLatestByBookingIdBefore(
+            @Param("bookingId") Long bookingId,
+            @Param("before") LocalDateTime before,
+            Pageable pageable
+    );
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "chat_read_marker"))
+    @Query(value = "INSERT INTO chat_read_marker (booking_id, user_id, last_read_timestamp, last_read_message_id, updated_at) " +
+            "SELECT m.booking_id, :userId, m.timestamp, m.id, now() FROM chat_message m " +
+            "WHERE m.booking_id = :bookingId ORDER BY m.timestamp DESC, m.id DESC LIMIT 1 " +
+            "ON CONFLICT (booking_id, user_id) DO UPDATE SET " +
+            "last_read_timestamp = EXCLUDED.last_read_timestamp, " +
+            "last_read_message_id = EXCLUDED.last_read_message_id, " +
+            "updated_at = EXCLUDED.updated_at " +
+            "WHERE (EXCLUDED.last_read_timestamp, EXCLUDED.last_read_message_id) > " +
+            "(chat_read_marker.last_read_timestamp, chat_read_marker.last_read_message_id)", nativeQuery = true)
+    int markConversationAsRead(@Param("bookingId") Long bookingId, @Param("userId") Long userId);
 }
\ No newline at end of file
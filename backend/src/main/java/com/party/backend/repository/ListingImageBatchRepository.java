@@ -0,0 +1,51 @@
+package com.party.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class ListingImageBatchRepository {
+
+    private static final String HAS_IMAGES_SQL =
+            "SELECT EXISTS (SELECT 1 FROM listing_image WHERE listing_id = ?)";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO listing_image (id, listing_id, image_url, is_cover) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PooledSequenceRepository pooledSequenceRepository;
+
+    /**
+     * Insere todas as imagens num único batch JDBC. A primeira passa a capa se o listing ainda não tiver imagens.
+     *
+     * @return os ids gerados, pela ordem de {@code imageUrls}
+     */
+    @Transactional
+    public List<Long> insertImages(Long listingId, List<String> imageUrls) {
+        boolean hasImages = Boolean.TRUE.equals(jdbcTemplate.queryForObject(HAS_IMAGES_SQL, Boolean.class, listingId));
+        List<Long> ids = pooledSequenceRepository.nextIds("listing_image_id_seq", imageUrls.size());
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, ids.get(i));
+                ps.setLong(2, listingId);
+                ps.setString(3, imageUrls.get(i));
+                ps.setBoolean(4, !hasImages && i == 0);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return imageUrls.size();
+            }
+        });
+        return ids;
+    }
+}
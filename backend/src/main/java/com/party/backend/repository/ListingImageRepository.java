@@ -1,11 +1,15 @@
 package com.party.backend.repository;
 
 import com.party.backend.model.ListingImage;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Set;
@@ -17,6 +21,7 @@ public interface ListingImageRepository extends JpaRepository<ListingImage, Long
     List<String> findUrlsByListingId(Long listingId);
 
     @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "listing_image"))
     @Query(value = "DELETE FROM listing_image WHERE listing_id = :listingId", nativeQuery = true)
     void deleteByListingId(@Param("listingId") Long listingId);
 
@@ -26,10 +31,26 @@ public interface ListingImageRepository extends JpaRepository<ListingImage, Long
     }
 
     @Query(value = "SELECT DISTINCT ON (listing_id) " +
-            "listing_id as listingId, image_url as imageUrl " +
+            "listing_id as listingId, COALESCE(medium_url, image_url) as imageUrl " +
             "FROM listing_image " +
             "WHERE listing_id IN :listingIds AND is_cover = true", nativeQuery = true)
     List<CoverImageProjection> findCoverImagesForListingIds(@Param("listingIds") Set<Long> listingIds);
 
     List<ListingImage> findAllByListingIdOrderByIsCoverDesc(Long listingId);
+
+    @Query(value = "SELECT u FROM listing_image i " +
+            "CROSS JOIN LATERAL unnest(ARRAY[i.image_url, i.thumbnail_url, i.medium_url, i.large_url]) AS u " +
+            "WHERE i.listing_id = :listingId AND u IS NOT NULL", nativeQuery = true)
+    List<String> findAllFileUrlsByListingId(@Param("listingId") Long listingId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "listing_image"))
+    @Transactional
+    @Query(value = "UPDATE listing_image SET thumbnail_url = :thumbnailUrl, medium_url = :mediumUrl, large_url = :largeUrl " +
+            "WHERE id = :id AND image_url = :imageUrl", nativeQuery = true)
+    int updateVariants(@Param("id") Long id,
+                       @Param("imageUrl") String imageUrl,
+                       @Param("thumbnailUrl") String thumbnailUrl,
+                       @Param("mediumUrl") String mediumUrl,
+                       @Param("largeUrl") String largeUrl);
 }
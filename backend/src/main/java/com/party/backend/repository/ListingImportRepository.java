@@ -0,0 +1,147 @@
+package com.party.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Importação em massa de listings: cada bloco é carregado com COPY para tabelas temporárias (apagadas no
+ * commit) e daí copiado para listing, listing_image e listing_amenity com INSERT ... SELECT, tudo numa só
+ * transação. Os ids vêm das sequências pooled, tal como nos inserts feitos pelo Hibernate.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ListingImportRepository {
+
+    private static final String CREATE_STAGING_SQL = """
+            CREATE TEMP TABLE listing_import_stage (
+                id BIGINT NOT NULL,
+                title TEXT NOT NULL,
+                description TEXT,
+                location TEXT NOT NULL,
+                price NUMERIC(10, 2) NOT NULL,
+                max_guests INT NOT NULL
+            ) ON COMMIT DROP;
+            CREATE TEMP TABLE listing_image_import_stage (
+                id BIGINT NOT NULL,
+                listing_id BIGINT NOT NULL,
+                image_url TEXT NOT NULL,
+                is_cover BOOLEAN NOT NULL
+            ) ON COMMIT DROP;
+            CREATE TEMP TABLE listing_amenity_import_stage (
+                listing_id BIGINT NOT NULL,
+                amenity_id INT NOT NULL
+            ) ON COMMIT DROP;
+            """;
+
+    private static final String MERGE_LISTINGS_SQL =
+            "INSERT INTO listing (id, host_id, title, description, location, price, rating, max_guests, enabled, created_at) " +
+            "SELECT id, ?, title, description, location, price, 0, max_guests, true, now() FROM listing_import_stage";
+
+    private static final String MERGE_IMAGES_SQL =
+            "INSERT INTO listing_image (id, listing_id, image_url, is_cover) " +
+            "SELECT id, listing_id, image_url, is_cover FROM listing_image_import_stage";
+
+    private static final String MERGE_AMENITIES_SQL =
+            "INSERT INTO listing_amenity (listing_id, amenity_id) " +
+            "SELECT DISTINCT listing_id, amenity_id FROM listing_amenity_import_stage";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PooledSequenceRepository pooledSequenceRepository;
+
+    public record ImportListing(
+            String title,
+            String description,
+            String location,
+            BigDecimal price,
+            int maxGuests,
+            List<String> imageUrls,
+            Set<Integer> amenityIds
+    ) {
+    }
+
+    public record ImportedImage(Long id, String imageUrl) {
+    }
+
+    public record ImportedChunk(List<Long> listingIds, List<ImportedImage> images) {
+    }
+
+    @Transactional
+    public ImportedChunk importChunk(Long hostId, List<ImportListing> listings) {
+        List<Long> listingIds = pooledSequenceRepository.nextIds("listing_id_seq", listings.size());
+        int imageCount = listings.stream().mapToInt(listing -> listing.imageUrls().size()).sum();
+        List<Long> imageIds = pooledSequenceRepository.nextIds("listing_image_id_seq", imageCount);
+
+        StringBuilder listingRows = new StringBuilder();
+        StringBuilder imageRows = new StringBuilder();
+        StringBuilder amenityRows = new StringBuilder();
+        List<ImportedImage> images = new ArrayList<>(imageCount);
+        int nextImage = 0;
+        for (int i = 0; i < listings.size(); i++) {
+            ImportListing listing = listings.get(i);
+            long listingId = listingIds.get(i);
+            appendRow(listingRows, listingId, listing.title(), listing.description(), listing.location(),
+                    listing.price().toPlainString(), listing.maxGuests());
+            for (int j = 0; j < listing.imageUrls().size(); j++) {
+                long imageId = imageIds.get(nextImage++);
+                String imageUrl = listing.imageUrls().get(j);
+                appendRow(imageRows, imageId, listingId, imageUrl, j == 0);
+                images.add(new ImportedImage(imageId, imageUrl));
+            }
+            for (Integer amenityId : listing.amenityIds()) {
+                appendRow(amenityRows, listingId, amenityId);
+            }
+        }
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING_SQL);
+            }
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            try {
+                copyManager.copyIn("COPY listing_import_stage (id, title, description, location, price, max_guests) FROM STDIN WITH (FORMAT csv)",
+                        new StringReader(listingRows.toString()));
+                copyManager.copyIn("COPY listing_image_import_stage (id, listing_id, image_url, is_cover) FROM STDIN WITH (FORMAT csv)",
+                        new StringReader(imageRows.toString()));
+                copyManager.copyIn("COPY listing_amenity_import_stage (listing_id, amenity_id) FROM STDIN WITH (FORMAT csv)",
+                        new StringReader(amenityRows.toString()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        });
+
+        jdbcTemplate.update(MERGE_LISTINGS_SQL, hostId);
+        jdbcTemplate.update(MERGE_IMAGES_SQL);
+        jdbcTemplate.update(MERGE_AMENITIES_SQL);
+        return new ImportedChunk(listingIds, images);
+    }
+
+    private static void appendRow(StringBuilder out, Object... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            Object value = values[i];
+            if (value instanceof String text) {
+                out.append('"').append(text.replace("\"", "\"\"")).append('"');
+            } else if (value != null) {
+                out.append(value);
+            }
+        }
+        out.append('\n');
+    }
+}
@@ -1,15 +1,19 @@
 package com.party.backend.repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.party.backend.model.Listing;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
 @Repository
 public interface ListingRepository extends JpaRepository<Listing, Long> {
@@ -36,7 +40,32 @@ public interface ListingRepository extends JpaRepository<Listing, Long> {
     Optional<Listing> findById(Long id);
 
 
+    interface ListingSearchProjection {
+        Long getId();
+        String getTitle();
+        String getDescription();
+        String getLocation();
+        BigDecimal getPrice();
+        Integer getMaxGuests();
+        Long getHostId();
+    }
+
+    /**
+     * Pesquisa em texto completo (search_vector, com pesos título > localização > descrição) e, para erros de
+     * escrita, por semelhança de trigramas no título e na localização. Ordenado por relevância.
+     */
+    @Query(value = "SELECT l.id AS id, l.title AS title, l.description AS description, l.location AS location, " +
+            "l.price AS price, l.max_guests AS maxGuests, l.host_id AS hostId " +
+            "FROM listing l, websearch_to_tsquery('simple', CAST(:query AS text)) q " +
+            "WHERE l.search_vector @@ q " +
+            "OR CAST(:query AS text) <% l.title " +
+            "OR CAST(:query AS text) <% l.location " +
+            "ORDER BY ts_rank(l.search_vector, q) + word_similarity(CAST(:query AS text), l.title) DESC, l.id " +
+            "LIMIT :limit", nativeQuery = true)
+    List<ListingSearchProjection> searchByText(@Param("query") String query, @Param("limit") int limit);
+
     @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "listing_amenity"))
     @Query(value = "DELETE FROM listing_amenity WHERE listing_id = :listingId", nativeQuery = true)
     void deleteAmenitiesByListingId(@Param("listingId") Long listingId);
 
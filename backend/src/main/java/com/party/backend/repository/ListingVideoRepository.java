@@ -1,11 +1,15 @@
 package com.party.backend.repository;
 
 import com.party.backend.model.ListingVideo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
 @Repository
@@ -15,6 +19,20 @@ public interface ListingVideoRepository extends JpaRepository<ListingVideo, Long
     List<String> findUrlsByListingId(Long listingId);
 
     @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "listing_video"))
     @Query(value = "DELETE FROM listing_video WHERE listing_id = :listingId", nativeQuery = true)
     void deleteByListingId(@Param("listingId") Long listingId);
+
+    List<ListingVideo> findAllByListingIdOrderByIdAsc(Long listingId);
+
+    @Query(value = "SELECT u FROM listing_video v " +
+            "CROSS JOIN LATERAL unnest(ARRAY[v.video_url, v.thumbnail_url]) AS u " +
+            "WHERE v.listing_id = :listingId AND u IS NOT NULL", nativeQuery = true)
+    List<String> findAllFileUrlsByListingId(@Param("listingId") Long listingId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "listing_video"))
+    @Transactional
+    @Query(value = "UPDATE listing_video SET thumbnail_url = :thumbnailUrl WHERE id = :id AND video_url = :videoUrl", nativeQuery = true)
+    int updateThumbnailUrl(@Param("id") Long id, @Param("videoUrl") String videoUrl, @Param("thumbnailUrl") String thumbnailUrl);
 }
\ No newline at end of file
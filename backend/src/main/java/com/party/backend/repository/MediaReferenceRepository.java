@@ -0,0 +1,86 @@
+package com.party.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Repository
+@RequiredArgsConstructor
+public class MediaReferenceRepository {
+
+    // Chaves de objeto referenciadas por listing_image/listing_video, por ordem binária (COLLATE "C"),
+    // a mesma ordem em que o ListObjectsV2 devolve as chaves. Lidas por keyset: cada lote começa depois
+    // da última chave do anterior.
+    private static final String REFERENCED_KEYS_AFTER_SQL =
+            "SELECT key FROM (" +
+            "  SELECT substr(u, ?) AS key FROM listing_image i " +
+            "  CROSS JOIN LATERAL unnest(ARRAY[i.image_url, i.thumbnail_url, i.medium_url, i.large_url]) AS u " +
+            "  WHERE left(u, ?) = ? " +
+            "  UNION " +
+            "  SELECT substr(u, ?) AS key FROM listing_video v " +
+            "  CROSS JOIN LATERAL unnest(ARRAY[v.video_url, v.thumbnail_url]) AS u " +
+            "  WHERE left(u, ?) = ? " +
+            ") refs WHERE key COLLATE \"C\" > ? ORDER BY key COLLATE \"C\" LIMIT ?";
+
+    private static final String REFERENCED_URLS_SQL =
+            "SELECT u FROM listing_image i " +
+            "CROSS JOIN LATERAL unnest(ARRAY[i.image_url, i.thumbnail_url, i.medium_url, i.large_url]) AS u " +
+            "WHERE u = ANY(?) " +
+            "UNION " +
+            "SELECT u FROM listing_video v " +
+            "CROSS JOIN LATERAL unnest(ARRAY[v.video_url, v.thumbnail_url]) AS u " +
+            "WHERE u = ANY(?)";
+
+    // Locks por ordem da chave, para que dois lotes com chaves em comum não entrem em deadlock.
+    private static final String LOCK_KEYS_SQL =
+            "SELECT count(pg_advisory_xact_lock(hashtext('media:' || k))) " +
+            "FROM (SELECT DISTINCT k FROM unnest(?::text[]) AS k ORDER BY k) keys";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Um lote por chamada, sem cursor aberto: não precisa de transação e não segura um snapshot durante
+    // o varrimento do bucket. afterKey vazio começa do início.
+    public List<String> findReferencedKeysAfter(String urlPrefix, String afterKey, int limit) {
+        int start = urlPrefix.length() + 1;
+        int prefixLength = urlPrefix.length();
+        return jdbcTemplate.queryForList(REFERENCED_KEYS_AFTER_SQL, String.class,
+                start, prefixLength, urlPrefix, start, prefixLength, urlPrefix, afterKey, limit);
+    }
+
+    // Lock partilhado entre quem associa um objeto existente e o cleaner que o apaga; é libertado no fim da
+    // transação, que tem de estar ativa.
+    public void lockKeys(Collection<String> objectKeys) {
+        if (objectKeys.isEmpty()) {
+            return;
+        }
+        String[] values = objectKeys.toArray(String[]::new);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(LOCK_KEYS_SQL);
+            ps.setArray(1, connection.createArrayOf("text", values));
+            return ps;
+        }, rs -> null);
+    }
+
+    // Contagem de referências feita na altura da remoção: com armazenamento por hash o mesmo objeto
+    // pode estar associado a vários listings e só é apagado quando já nenhuma linha o usa.
+    public Set<String> findReferencedUrls(Collection<String> urls) {
+        if (urls.isEmpty()) {
+            return Set.of();
+        }
+        String[] values = urls.toArray(String[]::new);
+        return new HashSet<>(jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(REFERENCED_URLS_SQL);
+            Array array = connection.createArrayOf("text", values);
+            ps.setArray(1, array);
+            ps.setArray(2, array);
+            return ps;
+        }, (rs, rowNum) -> rs.getString(1)));
+    }
+}
@@ -0,0 +1,47 @@
+package com.party.backend.repository;
+
+import com.party.backend.dto.NotificationDTO;
+import com.party.backend.model.Notification;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface NotificationRepository extends JpaRepository<Notification, Long> {
+
+    List<Notification> findByUserIdOrderByUpdatedAtDesc(Long userId, Pageable pageable);
+
+    long countByUserIdAndReadFalse(Long userId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "notification"))
+    @Query(value = "INSERT INTO notification (user_id, message, link, count, is_read, created_at, updated_at) " +
+            "VALUES (:userId, :message, :link, :count, false, now(), now()) " +
+            "ON CONFLICT (user_id, link) WHERE is_read = false DO UPDATE SET " +
+            "message = replace(:summary, '" + NotificationDTO.COUNT_PLACEHOLDER + "', (notification.count + EXCLUDED.count)::text), " +
+            "count = notification.count + EXCLUDED.count, updated_at = EXCLUDED.updated_at",
+            nativeQuery = true)
+    void upsertUnread(
+            @Param("userId") Long userId,
+            @Param("message") String message,
+            @Param("summary") String summary,
+            @Param("link") String link,
+            @Param("count") int count
+    );
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.read = true WHERE n.id = :id AND n.user.id = :userId")
+    int markAsRead(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.read = true WHERE n.user.id = :userId AND n.read = false")
+    int markAllAsRead(@Param("userId") Long userId);
+}
@@ -0,0 +1,45 @@
+package com.party.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Gestão das partições mensais (<tabela>_pYYYY_MM) através das funções criadas na V15. A partição default
+ * e as que não seguem o padrão do nome não são devolvidas.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PartitionRepository {
+
+    private static final String FIND_MONTHLY_PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class p ON p.oid = i.inhparent " +
+            "WHERE p.relname = ? AND c.relname ~ '_p[0-9]{4}_[0-9]{2}$' " +
+            "ORDER BY c.relname";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // ATTACH/DETACH precisam de um lock exclusivo na tabela-mãe; sem timeout ficariam em fila atrás de
+    // queries longas e bloqueariam todas as que chegassem depois.
+    public void setLockTimeout(long lockTimeoutMs) {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeoutMs);
+    }
+
+    public boolean ensureMonthlyPartition(String table, String keyColumn, LocalDate month) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT ensure_monthly_partition(?, ?, ?)", Boolean.class, table, keyColumn, month));
+    }
+
+    public List<String> findMonthlyPartitions(String table) {
+        return jdbcTemplate.queryForList(FIND_MONTHLY_PARTITIONS_SQL, String.class, table);
+    }
+
+    public void archivePartition(String table, String partition, String archiveSchema) {
+        jdbcTemplate.queryForObject("SELECT archive_partition(?, ?, ?)", Object.class, table, partition, archiveSchema);
+    }
+}
@@ -0,0 +1,65 @@
+package com.party.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class PendingDeletionRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO pending_deletion (object_key) VALUES (?)";
+
+    // Reclama um lote adiando o next_attempt_at (visibility timeout), numa transação própria que termina
+    // logo: o DeleteObjects corre depois, numa transação que só segura os advisory locks das chaves do lote
+    // (ver MediaDeletionService.deleteBatch). Se o nó morrer a meio, as linhas voltam a ficar disponíveis sozinhas.
+    private static final String CLAIM_SQL =
+            "UPDATE pending_deletion SET attempts = attempts + 1, " +
+            "next_attempt_at = now() + make_interval(secs => ?) " +
+            "WHERE id IN (SELECT id FROM pending_deletion WHERE next_attempt_at <= now() " +
+            "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, object_key, attempts";
+
+    private static final String DELETE_SQL =
+            "DELETE FROM pending_deletion WHERE id = ?";
+
+    private static final String FAIL_SQL =
+            "UPDATE pending_deletion SET last_error = ?, next_attempt_at = now() + make_interval(secs => ?) WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record PendingDeletion(Long id, String objectKey, int attempts) {
+    }
+
+    public record FailedDeletion(Long id, String error, long retryAfterSeconds) {
+    }
+
+    public void enqueue(Collection<String> objectKeys) {
+        List<Object[]> args = new ArrayList<>(objectKeys.size());
+        objectKeys.forEach(key -> args.add(new Object[]{key}));
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+    }
+
+    public List<PendingDeletion> claimBatch(int limit, long leaseSeconds) {
+        return jdbcTemplate.query(CLAIM_SQL,
+                (rs, rowNum) -> new PendingDeletion(rs.getLong("id"), rs.getString("object_key"), rs.getInt("attempts")),
+                leaseSeconds, limit);
+    }
+
+    public void deleteAll(Collection<Long> ids) {
+        List<Object[]> args = new ArrayList<>(ids.size());
+        ids.forEach(id -> args.add(new Object[]{id}));
+        jdbcTemplate.batchUpdate(DELETE_SQL, args);
+    }
+
+    public void markFailed(Collection<FailedDeletion> failures) {
+        List<Object[]> args = new ArrayList<>(failures.size());
+        failures.forEach(failure -> args.add(new Object[]{failure.error(), failure.retryAfterSeconds(), failure.id()}));
+        jdbcTemplate.batchUpdate(FAIL_SQL, args);
+    }
+}
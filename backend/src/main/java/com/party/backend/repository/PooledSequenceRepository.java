@@ -0,0 +1,38 @@
+package com.party.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reserva ids nas mesmas sequências que o Hibernate usa com {@code allocationSize = 50}, para os inserts
+ * feitos diretamente por JDBC. Segue a semântica do optimizer "pooled": cada nextval devolve o limite
+ * superior de um bloco de 50 ids; o que sobrar do último bloco fica por usar.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PooledSequenceRepository {
+
+    public static final int ALLOCATION_SIZE = 50;
+
+    private static final String NEXT_BLOCKS_SQL = "SELECT nextval(?::regclass) FROM generate_series(1, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<Long> nextIds(String sequenceName, int count) {
+        if (count <= 0) {
+            return List.of();
+        }
+        int blocks = (count + ALLOCATION_SIZE - 1) / ALLOCATION_SIZE;
+        List<Long> ids = new ArrayList<>(count);
+        for (Long hi : jdbcTemplate.queryForList(NEXT_BLOCKS_SQL, Long.class, sequenceName, blocks)) {
+            for (long id = hi - ALLOCATION_SIZE + 1; id <= hi && ids.size() < count; id++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+}
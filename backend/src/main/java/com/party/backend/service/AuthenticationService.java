@@ -2,46 +2,93 @@ package com.party.backend.service;
 
 import com.party.backend.dto.auth.AuthenticationResponse;
 import com.party.backend.dto.auth.LoginRequestDTO;
+import com.party.backend.dto.auth.RefreshTokenRequestDTO;
 import com.party.backend.dto.auth.RegisterRequestDTO;
+import com.party.backend.exception.InvalidTokenException;
+import com.party.backend.exception.RateLimitExceededException;
 import com.party.backend.model.User;
 import com.party.backend.model.enums.Role;
 import com.party.backend.repository.UserRepository;
+import com.party.backend.service.RateLimiterService.Decision;
+import com.party.backend.service.RateLimiterService.RouteClass;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
+import java.util.Locale;
+
 @Service
 @RequiredArgsConstructor
 public class AuthenticationService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
+    private final RateLimiterService rateLimiterService;
 
     public AuthenticationResponse register(RegisterRequestDTO request) {
         var user = new User();
         user.setFirstName(request.getFirstName());
         user.setLastName(request.getLastName());
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashingService.encode(request.getPassword()));
         user.setRole(Role.USER);
         userRepository.save(user);
-        var jwtToken = jwtService.generateToken(user);
-        return AuthenticationResponse.builder().token(jwtToken).build();
+        return issueTokens(user);
     }
 
     public AuthenticationResponse login(LoginRequestDTO request) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getEmail(),
-                        request.getPassword()
+        // O filtro já limita por IP; este bucket limita por conta, seja qual for o IP de origem.
+        String email = request.getEmail() == null ? "" : request.getEmail().trim().toLowerCase(Locale.ROOT);
+        Decision decision = rateLimiterService.tryConsume(RouteClass.LOGIN_ACCOUNT, "email:" + email);
+        if (!decision.allowed()) {
+            throw new RateLimitExceededException("Demasiadas tentativas de login para esta conta, tente novamente dentro de "
+                    + decision.retryAfterSeconds() + " segundos", decision.retryAfterSeconds());
+        }
+        Authentication authentication = passwordHashingService.execute("login", () ->
+                authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(
+                                request.getEmail(),
+                                request.getPassword()
+                        )
                 )
         );
-        var user = userRepository.findByEmail(request.getEmail()).orElseThrow();
-        var jwtToken = jwtService.generateToken(user);
-        return AuthenticationResponse.builder().token(jwtToken).build();
+        return issueTokens((User) authentication.getPrincipal());
+    }
+
+    public AuthenticationResponse refresh(RefreshTokenRequestDTO request) {
+        Long userId = refreshTokenService.consume(request.getRefreshToken())
+                .orElseThrow(() -> new InvalidTokenException("Refresh token inválido ou expirado"));
+        var user = userRepository.findById(userId)
+                .orElseThrow(() -> new InvalidTokenException("Refresh token inválido ou expirado"));
+        return issueTokens(user);
+    }
+
+    public void logout(String accessToken, RefreshTokenRequestDTO request) {
+        if (accessToken != null) {
+            try {
+                Claims claims = jwtService.parseClaims(accessToken);
+                tokenRevocationService.revoke(claims.getId(), claims.getExpiration());
+            } catch (JwtException e) {
+                // Token já inválido ou expirado: não há nada a revogar.
+            }
+        }
+        if (request != null) {
+            refreshTokenService.revoke(request.getRefreshToken());
+        }
+    }
+
+    private AuthenticationResponse issueTokens(User user) {
+        return AuthenticationResponse.builder()
+                .token(jwtService.generateToken(user))
+                .refreshToken(refreshTokenService.issue(user.getId()))
+                .build();
     }
 }
@@ -32,6 +32,8 @@ public class BookingService {
     private final BookingRepository bookingRepository;
     private final ListingRepository listingRepository;
     private final NotificationService notificationService;
+    private final ChatRecentMessageCache chatRecentMessageCache;
+    private final ChatRoomMembershipCache chatRoomMembershipCache;
 
     @Transactional
     public BookingResponseDTO createBooking(BookingRequestDTO request, User client) {
@@ -106,7 +108,7 @@ public class BookingService {
 
     @Transactional
     public void deleteBooking(Long bookingId, User currentUser) {
-        Booking booking = bookingRepository.findById(bookingId)
+        Booking booking = bookingRepository.findByIdWithDetails(bookingId)
                 .orElseThrow(() -> new ResourceNotFoundException("Reserva não encontrada com id: " + bookingId));
         User host = booking.getListing().getHost();
         User client = booking.getUser();
@@ -126,7 +128,10 @@ public class BookingService {
                 currentUserId.equals(client.getId()) ? "/my-listings" : "/my-bookings"
         );
         notificationService.sendNotificationToUser(notificationRecipient, notification);
-        bookingRepository.delete(booking);
+        // As mensagens e marcadores de leitura são apagados pelo trigger de booking, sem as carregar uma a uma.
+        bookingRepository.deleteBookingById(bookingId);
+        chatRecentMessageCache.evict(bookingId);
+        chatRoomMembershipCache.evict(bookingId);
         log.info("✅ Booking deleted successfully");
     }
 
@@ -141,27 +146,24 @@ public class BookingService {
 
     @Transactional(readOnly = true)
     public List<ConversationDTO> getUserConversations(User currentUser) {
-        List<Booking> bookings = bookingRepository.findConversationsForUser(currentUser.getId());
-        return bookings.stream().map(booking -> {
+        return bookingRepository.findConversationSummariesForUser(currentUser.getId()).stream().map(projection -> {
             ConversationDTO dto = new ConversationDTO();
-            dto.setBookingId(booking.getId());
-            dto.setListingTitle(booking.getListing().getTitle());
-            dto.setListingLocation(booking.getListing().getLocation());
-            dto.setCheckInDate(booking.getCheckInDate());
-            dto.setCheckOutDate(booking.getCheckOutDate());
-            dto.setStatus(booking.getStatus().toString());
-            User client = booking.getUser();
-            User host = booking.getListing().getHost();
-
-            if (currentUser.getId().equals(client.getId())) {
-                dto.setOtherUserName(host.getFirstName() + " " + host.getLastName() + " (Anfitrião)");
+            dto.setBookingId(projection.getBookingId());
+            dto.setListingTitle(projection.getListingTitle());
+            dto.setListingLocation(projection.getListingLocation());
+            dto.setCheckInDate(projection.getCheckInDate());
+            dto.setCheckOutDate(projection.getCheckOutDate());
+            dto.setStatus(projection.getStatus());
+
+            if (currentUser.getId().equals(projection.getClientId())) {
+                dto.setOtherUserName(projection.getHostFirstName() + " " + projection.getHostLastName() + " (Anfitrião)");
             } else {
-                dto.setOtherUserName(client.getFirstName() + " " + client.getLastName());
+                dto.setOtherUserName(projection.getClientFirstName() + " " + projection.getClientLastName());
             }
 
-            // TODO: No futuro, buscar a última mensagem real do ChatMessageRepository
-            dto.setLastMessageTime(null);
-            dto.setUnreadCount(0);
+            dto.setLastMessagePreview(projection.getLastMessagePreview());
+            dto.setLastMessageTime(projection.getLastMessageTime());
+            dto.setUnreadCount(projection.getUnreadCount());
 
             return dto;
         }).collect(Collectors.toList());
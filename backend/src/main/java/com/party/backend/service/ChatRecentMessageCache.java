@@ -0,0 +1,133 @@
+package com.party.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.party.backend.dto.ChatMessageDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Histórico recente de cada sala numa lista Redis limitada. O aquecimento (leitura da BD + escrita da lista)
+ * não é atómico, por isso durante o aquecimento as mensagens novas vão para um buffer que o store junta ao
+ * snapshot num script Lua. A deduplicação compara o JSON, o que exige timestamps já truncados a
+ * microssegundos (a precisão do Postgres) quando a mensagem é criada.
+ */
+@Slf4j
+@Service
+public class ChatRecentMessageCache {
+
+    private static final String KEY_PREFIX = "chat:recent:";
+    private static final String WARMING_SUFFIX = ":warming";
+    private static final long WARMING_TTL_SECONDS = 30;
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final DefaultRedisScript<Long> appendScript;
+    private final DefaultRedisScript<Long> storeScript;
+    private final int capacity;
+    private final long ttlSeconds;
+
+    public ChatRecentMessageCache(
+            StringRedisTemplate redisTemplate,
+            ObjectMapper objectMapper,
+            @Value("${chat.recent-cache.size:50}") int capacity,
+            @Value("${chat.recent-cache.ttl-minutes:60}") long ttlMinutes
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.capacity = capacity;
+        this.ttlSeconds = TimeUnit.MINUTES.toSeconds(ttlMinutes);
+        this.appendScript = script("redis/chat_recent_append.lua");
+        this.storeScript = script("redis/chat_recent_store.lua");
+    }
+
+    private static DefaultRedisScript<Long> script(String path) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void append(Long bookingId, ChatMessageDTO message) {
+        String key = KEY_PREFIX + bookingId;
+        try {
+            redisTemplate.execute(appendScript, List.of(key, key + WARMING_SUFFIX),
+                    objectMapper.writeValueAsString(message), String.valueOf(capacity), String.valueOf(ttlSeconds));
+        } catch (Exception e) {
+            log.warn("Falha ao atualizar cache de mensagens recentes da reserva {}: {}", bookingId, e.getMessage());
+        }
+    }
+
+    // Chamado antes de ler o snapshot da BD: a partir daqui as mensagens novas da sala ficam no buffer.
+    public void beginWarm(Long bookingId) {
+        String warmingKey = KEY_PREFIX + bookingId + WARMING_SUFFIX;
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                stringConnection.rPush(warmingKey, "");
+                stringConnection.expire(warmingKey, WARMING_TTL_SECONDS);
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Falha ao iniciar aquecimento da cache de mensagens recentes da reserva {}: {}", bookingId, e.getMessage());
+        }
+    }
+
+    public Optional<List<ChatMessageDTO>> getRecent(Long bookingId) {
+        try {
+            List<String> values = redisTemplate.opsForList().range(KEY_PREFIX + bookingId, 0, -1);
+            if (values == null || values.isEmpty()) {
+                return Optional.empty();
+            }
+            List<ChatMessageDTO> messages = new ArrayList<>(values.size());
+            for (String value : values) {
+                messages.add(objectMapper.readValue(value, ChatMessageDTO.class));
+            }
+            return Optional.of(messages);
+        } catch (Exception e) {
+            log.warn("Falha ao ler cache de mensagens recentes da reserva {}: {}", bookingId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void store(Long bookingId, List<ChatMessageDTO> messages) {
+        String key = KEY_PREFIX + bookingId;
+        try {
+            String[] args = new String[messages.size() + 2];
+            args[0] = String.valueOf(capacity);
+            args[1] = String.valueOf(ttlSeconds);
+            for (int i = 0; i < messages.size(); i++) {
+                args[i + 2] = objectMapper.writeValueAsString(messages.get(i));
+            }
+            redisTemplate.execute(storeScript, List.of(key, key + WARMING_SUFFIX), (Object[]) args);
+        } catch (JsonProcessingException e) {
+            log.warn("Falha ao serializar mensagens da reserva {}: {}", bookingId, e.getMessage());
+        } catch (Exception e) {
+            log.warn("Falha ao aquecer cache de mensagens recentes da reserva {}: {}", bookingId, e.getMessage());
+        }
+    }
+
+    public void evict(Long bookingId) {
+        try {
+            redisTemplate.delete(List.of(KEY_PREFIX + bookingId, KEY_PREFIX + bookingId + WARMING_SUFFIX));
+        } catch (Exception e) {
+            log.warn("Falha ao remover cache de mensagens recentes da reserva {}: {}", bookingId, e.getMessage());
+        }
+    }
+}
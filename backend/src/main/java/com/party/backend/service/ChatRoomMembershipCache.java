@@ -0,0 +1,136 @@
+package com.party.backend.service;
+
+import com.party.backend.repository.BookingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Participantes de cada sala de chat, em memória em cada nó (LRU com TTL curto).
+ * As invalidações correm depois do commit e são difundidas por pub/sub para os restantes nós;
+ * o TTL limita o tempo de vida de uma entrada caso uma mensagem se perca.
+ */
+@Slf4j
+@Service
+public class ChatRoomMembershipCache {
+
+    public static final String EVICTION_CHANNEL = "chat:membership-evictions";
+
+    private final BookingRepository bookingRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final long ttlNanos;
+    private final Map<Long, CachedMembers> membersByBookingId;
+
+    public record RoomMembers(Long clientId, String clientUsername, Long hostId, String hostUsername) {
+
+        public boolean isParticipant(Long userId) {
+            return clientId.equals(userId) || hostId.equals(userId);
+        }
+
+        public Long otherParticipantId(Long userId) {
+            return clientId.equals(userId) ? hostId : clientId;
+        }
+
+        public String otherParticipantUsername(Long userId) {
+            return clientId.equals(userId) ? hostUsername : clientUsername;
+        }
+    }
+
+    private record CachedMembers(RoomMembers members, long loadedAt) {
+    }
+
+    public ChatRoomMembershipCache(
+            BookingRepository bookingRepository,
+            StringRedisTemplate redisTemplate,
+            @Value("${chat.membership-cache.max-size:10000}") int maxSize,
+            @Value("${chat.membership-cache.ttl-seconds:60}") long ttlSeconds
+    ) {
+        this.bookingRepository = bookingRepository;
+        this.redisTemplate = redisTemplate;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.membersByBookingId = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedMembers> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    public Optional<RoomMembers> get(Long bookingId) {
+        CachedMembers cached = membersByBookingId.get(bookingId);
+        if (cached != null && System.nanoTime() - cached.loadedAt() < ttlNanos) {
+            return Optional.of(cached.members());
+        }
+        Optional<RoomMembers> loaded = bookingRepository.findChatRoomMembers(bookingId)
+                .map(projection -> new RoomMembers(
+                        projection.getClientId(),
+                        projection.getClientUsername(),
+                        projection.getHostId(),
+                        projection.getHostUsername()
+                ));
+        loaded.ifPresentOrElse(
+                members -> membersByBookingId.put(bookingId, new CachedMembers(members, System.nanoTime())),
+                () -> membersByBookingId.remove(bookingId));
+        return loaded;
+    }
+
+    public boolean isParticipant(Long bookingId, Long userId) {
+        return userId != null && get(bookingId).map(members -> members.isParticipant(userId)).orElse(false);
+    }
+
+    public void evict(Long bookingId) {
+        evictAll(List.of(bookingId));
+    }
+
+    /**
+     * Dentro de uma transação a invalidação só corre depois do commit: antes disso outro pedido ainda
+     * leria a reserva apagada e voltaria a pôr a entrada na cache.
+     */
+    public void evictAll(Collection<Long> bookingIds) {
+        if (bookingIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(bookingIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictEverywhere(ids);
+                }
+            });
+        } else {
+            evictEverywhere(ids);
+        }
+    }
+
+    public void onEvictionMessage(String message) {
+        Arrays.stream(message.split(","))
+                .filter(id -> !id.isBlank())
+                .map(Long::valueOf)
+                .forEach(membersByBookingId::remove);
+    }
+
+    private void evictEverywhere(List<Long> bookingIds) {
+        bookingIds.forEach(membersByBookingId::remove);
+        try {
+            redisTemplate.convertAndSend(EVICTION_CHANNEL,
+                    bookingIds.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        } catch (Exception e) {
+            log.warn("Falha ao difundir invalidação das salas {}; os outros nós expiram-nas pelo TTL: {}",
+                    bookingIds, e.getMessage());
+        }
+    }
+}
@@ -1,22 +1,29 @@
 package com.party.backend.service;
 
+import com.party.backend.config.ReplicaRoutingDataSource;
 import com.party.backend.dto.ChatMessageDTO;
 import com.party.backend.dto.NotificationDTO;
 import com.party.backend.exception.ResourceNotFoundException;
 import com.party.backend.exception.UnauthorizedOperationException;
-import com.party.backend.model.Booking;
 import com.party.backend.model.ChatMessage;
 import com.party.backend.model.User;
 import com.party.backend.repository.BookingRepository;
+import com.party.backend.repository.ChatMessageBatchRepository.PendingChatMessage;
 import com.party.backend.repository.ChatMessageRepository;
 import com.party.backend.repository.UserRepository;
+import com.party.backend.service.ChatRoomMembershipCache.RoomMembers;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @Slf4j
 @Service
@@ -27,54 +34,106 @@ public class ChatService {
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final ChatRecentMessageCache chatRecentMessageCache;
+    private final ChatRoomMembershipCache chatRoomMembershipCache;
 
     @Transactional
     public ChatMessage saveMessage(ChatMessageDTO chatMessageDTO, Long bookingId) {
-        Booking booking = bookingRepository.findByIdWithDetails(bookingId)
-                .orElseThrow(() -> new ResourceNotFoundException("Reserva não encontrada: " + bookingId));
+        RoomMembers members = requireParticipant(bookingId, chatMessageDTO.getSenderId());
 
-        User sender = userRepository.findById(chatMessageDTO.getSenderId())
-                .orElseThrow(() -> new ResourceNotFoundException("Utilizador remetente não encontrado: " + chatMessageDTO.getSenderId()));
         ChatMessage message = new ChatMessage();
-        message.setBooking(booking);
-        message.setSender(sender);
+        message.setBooking(bookingRepository.getReferenceById(bookingId));
+        message.setSender(userRepository.getReferenceById(chatMessageDTO.getSenderId()));
         message.setContent(chatMessageDTO.getContent());
 
-        User host = booking.getListing().getHost();
-        User client = booking.getUser();
-        User recipient = sender.getId().equals(client.getId()) ? host : client;
+        notifyRecipient(bookingId, members, chatMessageDTO.getSenderId(), chatMessageDTO.getSenderName());
+
+        ChatMessage savedMessage = chatMessageRepository.save(message);
+        chatMessageDTO.setTimestamp(savedMessage.getTimestamp());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                chatRecentMessageCache.append(bookingId, chatMessageDTO);
+            }
+        });
+        return savedMessage;
+    }
+
+    public void notifyRecipients(List<PendingChatMessage> messages) {
+        for (PendingChatMessage message : messages) {
+            chatRoomMembershipCache.get(message.bookingId())
+                    .filter(members -> members.isParticipant(message.senderId()))
+                    .ifPresent(members -> notifyRecipient(
+                            message.bookingId(), members, message.senderId(), message.senderName()));
+        }
+    }
+
+    private void notifyRecipient(Long bookingId, RoomMembers members, Long senderId, String senderName) {
+        String recipient = members.otherParticipantUsername(senderId);
 
-        log.info("Sending chat notification from {} to {}",
-                sender.getFirstName(), recipient.getFirstName());
+        log.info("Sending chat notification from {} to {}", senderName, recipient);
 
         NotificationDTO notification = new NotificationDTO(
-                "Nova mensagem de " + sender.getFirstName(),
+                "Nova mensagem de " + senderName,
+                NotificationDTO.COUNT_PLACEHOLDER + " novas mensagens de " + senderName,
                 "/chat/" + bookingId
         );
-        notificationService.sendNotificationToUser(recipient, notification);
-
-        return chatMessageRepository.save(message);
+        notificationService.sendNotification(members.otherParticipantId(senderId), recipient, notification);
     }
 
-    @Transactional(readOnly = true)
-    public List<ChatMessageDTO> getMessageHistory(Long bookingId, User currentUser) {
-        Booking booking = bookingRepository.findById(bookingId)
+    private RoomMembers requireParticipant(Long bookingId, Long userId) {
+        RoomMembers members = chatRoomMembershipCache.get(bookingId)
                 .orElseThrow(() -> new ResourceNotFoundException("Reserva não encontrada: " + bookingId));
-        Long currentUserId = currentUser.getId();
-        Long clientId = booking.getUser().getId();
-        Long hostId = booking.getListing().getHost().getId();
-        if (!currentUserId.equals(clientId) && !currentUserId.equals(hostId)) {
+        if (userId == null || !members.isParticipant(userId)) {
             throw new UnauthorizedOperationException("Você não tem permissão para aceder a este chat.");
         }
+        return members;
+    }
+
+    @Transactional
+    public void markConversationAsRead(Long bookingId, User currentUser) {
+        requireParticipant(bookingId, currentUser.getId());
+        chatMessageRepository.markConversationAsRead(bookingId, currentUser.getId());
+    }
+
+    // Sem transação própria: cada leitura abre a sua, o que permite fazer o aquecimento da cache no primário.
+    public List<ChatMessageDTO> getMessageHistory(Long bookingId, User currentUser, LocalDateTime before, int size) {
+        requireParticipant(bookingId, currentUser.getId());
+        int pageSize = Math.max(1, Math.min(size, chatRecentMessageCache.getCapacity()));
+
+        if (before != null) {
+            return mapToChatMessageDTOs(chatMessageRepository.findLatestByBookingIdBefore(
+                    bookingId, before, PageRequest.of(0, pageSize)));
+        }
 
-        List<ChatMessage> messages = chatMessageRepository.findByBookingIdOrderByTimestampAsc(bookingId);
+        Optional<List<ChatMessageDTO>> cached = chatRecentMessageCache.getRecent(bookingId);
+        if (cached.isPresent()) {
+            return newest(cached.get(), pageSize);
+        }
+        // Lido do primário: o que for para a cache fica lá até ao TTL, e a réplica pode ainda não ter as últimas.
+        chatRecentMessageCache.beginWarm(bookingId);
+        List<ChatMessageDTO> recent = mapToChatMessageDTOs(ReplicaRoutingDataSource.readFromPrimary(() ->
+                chatMessageRepository.findLatestByBookingId(bookingId, PageRequest.of(0, chatRecentMessageCache.getCapacity()))));
+        chatRecentMessageCache.store(bookingId, recent);
+        return newest(recent, pageSize);
+    }
 
-        return messages.stream()
-                .map(message -> new ChatMessageDTO(
-                        message.getSender().getFirstName(),
-                        message.getSender().getId(),
-                        message.getContent()
-                ))
-                .collect(Collectors.toList());
+    private static List<ChatMessageDTO> newest(List<ChatMessageDTO> oldestFirst, int size) {
+        return oldestFirst.size() <= size ? oldestFirst : oldestFirst.subList(oldestFirst.size() - size, oldestFirst.size());
+    }
+
+    private List<ChatMessageDTO> mapToChatMessageDTOs(List<ChatMessage> newestFirst) {
+        List<ChatMessageDTO> messages = new ArrayList<>(newestFirst.size());
+        for (int i = newestFirst.size() - 1; i >= 0; i--) {
+            ChatMessage message = newestFirst.get(i);
+            User sender = message.getSender();
+            messages.add(new ChatMessageDTO(
+                    sender != null ? sender.getFirstName() : null,
+                    sender != null ? sender.getId() : null,
+                    message.getContent(),
+                    message.getTimestamp()
+            ));
+        }
+        return messages;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,272 @@
+package com.party.backend.service;
+
+import com.party.backend.dto.ChatMessageDTO;
+import com.party.backend.exception.ServiceUnavailableException;
+import com.party.backend.repository.ChatMessageBatchRepository;
+import com.party.backend.repository.ChatMessageBatchRepository.PendingChatMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Persistência write-behind das mensagens de chat: o controller faz o broadcast, enfileira a mensagem
+ * numa fila limitada e uma thread dedicada grava-as em lotes JDBC, com ids reservados da sequence.
+ * Quando a fila está cheia a mensagem é gravada na thread do chamador (backpressure), e no shutdown
+ * a fila é drenada antes de o DataSource ser fechado.
+ * <p>
+ * Um lote que falha por indisponibilidade da base de dados não é descartado: fica retido com os ids já
+ * reservados e é repetido com backoff antes de a thread tirar mais mensagens da fila. Só as mensagens
+ * rejeitadas pela própria base de dados (constraint violada) são descartadas.
+ */
+@Slf4j
+@Service
+public class ChatWriteBehindService implements SmartLifecycle {
+
+    private static final long MAX_BACKOFF_MS = 5000;
+    private static final long SHUTDOWN_RETRY_MS = 500;
+
+    private final ChatMessageBatchRepository chatMessageBatchRepository;
+    private final ChatService chatService;
+    private final ChatRecentMessageCache chatRecentMessageCache;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+    private final long shutdownTimeoutMs;
+    private final BlockingQueue<PendingChatMessage> queue;
+    // Leitura: enqueue verifica running e coloca na fila. Escrita: stop desliga running. Assim nenhuma
+    // mensagem entra na fila depois de o stop a ter começado a drenar.
+    private final ReadWriteLock runningLock = new ReentrantReadWriteLock();
+
+    private volatile boolean running;
+    private Thread worker;
+    // Lote retido pela thread ao terminar; lido pelo stop depois do join.
+    private PendingBatch failedBatch;
+
+    // ids é null enquanto a reserva na sequence não tiver sido feita.
+    private record PendingBatch(List<PendingChatMessage> messages, List<Long> ids) {
+    }
+
+    public ChatWriteBehindService(
+            ChatMessageBatchRepository chatMessageBatchRepository,
+            ChatService chatService,
+            ChatRecentMessageCache chatRecentMessageCache,
+            PlatformTransactionManager transactionManager,
+            @Value("${chat.write-behind.enabled:false}") boolean enabled,
+            @Value("${chat.write-behind.queue-capacity:10000}") int queueCapacity,
+            @Value("${chat.write-behind.batch-size:200}") int batchSize,
+            @Value("${chat.write-behind.flush-interval-ms:200}") long flushIntervalMs,
+            @Value("${chat.write-behind.offer-timeout-ms:50}") long offerTimeoutMs,
+            @Value("${chat.write-behind.shutdown-timeout-ms:30000}") long shutdownTimeoutMs
+    ) {
+        this.chatMessageBatchRepository = chatMessageBatchRepository;
+        this.chatService = chatService;
+        this.chatRecentMessageCache = chatRecentMessageCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void enqueue(ChatMessageDTO chatMessageDTO, Long bookingId) {
+        PendingChatMessage message = new PendingChatMessage(
+                bookingId,
+                chatMessageDTO.getSenderId(),
+                chatMessageDTO.getSenderName(),
+                chatMessageDTO.getContent(),
+                chatMessageDTO.getTimestamp() != null ? chatMessageDTO.getTimestamp() : LocalDateTime.now().truncatedTo(ChronoUnit.MICROS)
+        );
+        chatRecentMessageCache.append(bookingId, chatMessageDTO);
+        runningLock.readLock().lock();
+        try {
+            if (running) {
+                if (queue.offer(message, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+                log.warn("Fila write-behind do chat cheia ({} mensagens), a gravar na thread do chamador", queue.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            runningLock.readLock().unlock();
+        }
+        if (flush(new PendingBatch(List.of(message), null)) != null) {
+            throw new ServiceUnavailableException("Não foi possível gravar a mensagem, tente novamente", 1);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::runLoop, "chat-write-behind");
+        worker.setDaemon(false);
+        worker.start();
+        log.info("Chat write-behind iniciado (batchSize={}, flushIntervalMs={})", batchSize, flushIntervalMs);
+    }
+
+    @Override
+    public void stop() {
+        runningLock.writeLock().lock();
+        try {
+            if (!running) {
+                return;
+            }
+            running = false;
+        } finally {
+            runningLock.writeLock().unlock();
+        }
+        try {
+            worker.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drainAndFlush(System.currentTimeMillis() + shutdownTimeoutMs);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Para depois do servidor web (DEFAULT_PHASE - 2048), quando já não chegam mensagens novas.
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void runLoop() {
+        PendingBatch retry = null;
+        long backoffMs = flushIntervalMs;
+        while (running) {
+            try {
+                if (retry != null) {
+                    Thread.sleep(backoffMs);
+                    retry = flush(retry);
+                    backoffMs = retry != null ? Math.min(backoffMs * 2, MAX_BACKOFF_MS) : flushIntervalMs;
+                    continue;
+                }
+                PendingChatMessage first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<PendingChatMessage> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                retry = flush(new PendingBatch(batch, null));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Erro inesperado no write-behind do chat", e);
+            }
+        }
+        failedBatch = retry;
+    }
+
+    private void drainAndFlush(long deadline) {
+        PendingBatch pending = failedBatch;
+        failedBatch = null;
+        while (true) {
+            if (pending == null) {
+                List<PendingChatMessage> batch = new ArrayList<>(batchSize);
+                if (queue.drainTo(batch, batchSize) == 0) {
+                    log.info("Chat write-behind parado, fila drenada");
+                    return;
+                }
+                pending = new PendingBatch(batch, null);
+            }
+            pending = flush(pending);
+            if (pending != null) {
+                if (System.currentTimeMillis() >= deadline) {
+                    log.error("Chat write-behind parado sem conseguir gravar {} mensagens: base de dados indisponível",
+                            pending.messages().size() + queue.size());
+                    return;
+                }
+                try {
+                    Thread.sleep(SHUTDOWN_RETRY_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Grava o lote e devolve o que ficou por gravar por a base de dados estar indisponível (null se nada).
+     */
+    private PendingBatch flush(PendingBatch batch) {
+        List<PendingChatMessage> messages = batch.messages();
+        List<Long> ids = batch.ids();
+        try {
+            if (ids == null) {
+                ids = chatMessageBatchRepository.nextIds(messages.size());
+            }
+            List<Long> reservedIds = ids;
+            transactionTemplate.executeWithoutResult(status -> chatMessageBatchRepository.insertBatch(reservedIds, messages));
+            notifyRecipients(messages);
+            return null;
+        } catch (Exception e) {
+            if (ids == null || !(e instanceof DataIntegrityViolationException)) {
+                log.warn("Falha ao gravar lote de {} mensagens, fica para nova tentativa: {}", messages.size(), e.getMessage());
+                return new PendingBatch(messages, ids);
+            }
+            log.warn("Falha no lote de {} mensagens, a gravar uma a uma: {}", messages.size(), e.getMessage());
+        }
+
+        List<PendingChatMessage> persisted = new ArrayList<>(messages.size());
+        PendingBatch remaining = null;
+        for (int i = 0; i < messages.size(); i++) {
+            PendingChatMessage message = messages.get(i);
+            try {
+                chatMessageBatchRepository.insert(ids.get(i), message);
+                persisted.add(message);
+            } catch (DataIntegrityViolationException rowError) {
+                log.error("Mensagem descartada para a reserva {} (remetente {}): {}",
+                        message.bookingId(), message.senderId(), rowError.getMessage());
+            } catch (Exception rowError) {
+                log.warn("Falha ao gravar mensagem, {} ficam para nova tentativa: {}", messages.size() - i, rowError.getMessage());
+                remaining = new PendingBatch(messages.subList(i, messages.size()), ids.subList(i, ids.size()));
+                break;
+            }
+        }
+        notifyRecipients(persisted);
+        return remaining;
+    }
+
+    private void notifyRecipients(List<PendingChatMessage> persisted) {
+        if (persisted.isEmpty()) {
+            return;
+        }
+        try {
+            chatService.notifyRecipients(persisted);
+        } catch (Exception e) {
+            log.error("Falha ao enviar notificações de chat do lote", e);
+        }
+    }
+}
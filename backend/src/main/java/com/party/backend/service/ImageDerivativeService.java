@@ -0,0 +1,257 @@
+package com.party.backend.service;
+
+import com.party.backend.config.RabbitConfig;
+import com.party.backend.dto.media.ImageDerivativeMessage;
+import com.party.backend.model.ListingImage;
+import com.party.backend.repository.ListingImageRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Gera as variantes redimensionadas das imagens dos listings (thumbnail, medium, large) num worker
+ * alimentado pelo RabbitMQ. Cada original é descodificado uma vez (já subamostrado para o tamanho
+ * da maior variante) e as variantes seguintes são obtidas em cascata a partir da anterior.
+ * Usa WebP quando existe um writer ImageIO para esse formato no classpath e JPEG caso contrário.
+ */
+@Slf4j
+@Service
+public class ImageDerivativeService {
+
+    private static final int LARGE_WIDTH = 1600;
+    private static final int MEDIUM_WIDTH = 800;
+    private static final int THUMBNAIL_WIDTH = 320;
+
+    public record EncodedImage(byte[] content, String contentType, String extension) {
+    }
+
+    private final RabbitTemplate rabbitTemplate;
+    private final StorageService storageService;
+    private final MediaDeletionService mediaDeletionService;
+    private final ListingImageRepository listingImageRepository;
+    private final MeterRegistry meterRegistry;
+    private final float quality;
+    private final String outputFormat;
+    private final String outputContentType;
+
+    public ImageDerivativeService(
+            RabbitTemplate rabbitTemplate,
+            StorageService storageService,
+            MediaDeletionService mediaDeletionService,
+            ListingImageRepository listingImageRepository,
+            MeterRegistry meterRegistry,
+            @Value("${media.derivatives.quality:0.8}") float quality
+    ) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.storageService = storageService;
+        this.mediaDeletionService = mediaDeletionService;
+        this.listingImageRepository = listingImageRepository;
+        this.meterRegistry = meterRegistry;
+        this.quality = quality;
+        boolean webpAvailable = ImageIO.getImageWritersByMIMEType("image/webp").hasNext();
+        this.outputFormat = webpAvailable ? "webp" : "jpeg";
+        this.outputContentType = webpAvailable ? "image/webp" : "image/jpeg";
+    }
+
+    public void requestDerivatives(Collection<ListingImage> images) {
+        List<ImageDerivativeMessage> messages = images.stream()
+                .filter(image -> image.getId() != null)
+                .map(image -> new ImageDerivativeMessage(image.getId(), image.getImageUrl()))
+                .toList();
+        if (messages.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(messages);
+                }
+            });
+        } else {
+            publish(messages);
+        }
+    }
+
+    private void publish(List<ImageDerivativeMessage> messages) {
+        for (ImageDerivativeMessage message : messages) {
+            try {
+                rabbitTemplate.convertAndSend(RabbitConfig.IMAGE_DERIVATIVES_QUEUE, message);
+            } catch (Exception e) {
+                log.warn("Falha ao agendar variantes da imagem {}: {}", message.imageId(), e.getMessage());
+            }
+        }
+    }
+
+    @RabbitListener(queues = RabbitConfig.IMAGE_DERIVATIVES_QUEUE, concurrency = "${media.derivatives.concurrency:2}")
+    public void generateDerivatives(ImageDerivativeMessage message) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String originalKey = storageService.keyFromUrl(message.imageUrl());
+        String baseKey = originalKey.contains(".") ? originalKey.substring(0, originalKey.lastIndexOf('.')) : originalKey;
+        String extension = encodedExtension();
+        String largeKey = baseKey + "_w" + LARGE_WIDTH + extension;
+        String mediumKey = baseKey + "_w" + MEDIUM_WIDTH + extension;
+        String thumbnailKey = baseKey + "_w" + THUMBNAIL_WIDTH + extension;
+
+        List<String> uploaded = new ArrayList<>();
+        // Originais guardados por hash: a mesma foto noutro listing já tem as variantes geradas.
+        if (storageService.headObject(largeKey).isPresent()
+                && storageService.headObject(mediumKey).isPresent()
+                && storageService.headObject(thumbnailKey).isPresent()) {
+            meterRegistry.counter("media.derivatives.reused").increment();
+            uploaded.add(storageService.publicUrlFor(largeKey));
+            uploaded.add(storageService.publicUrlFor(mediumKey));
+            uploaded.add(storageService.publicUrlFor(thumbnailKey));
+        } else {
+            BufferedImage large;
+            try (InputStream in = storageService.openObject(originalKey)) {
+                large = decode(in, LARGE_WIDTH);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Falha ao ler a imagem " + originalKey, e);
+            }
+            if (large == null) {
+                log.warn("Imagem {} num formato não suportado, variantes ignoradas", originalKey);
+                return;
+            }
+
+            large = toRgb(resize(large, LARGE_WIDTH));
+            BufferedImage medium = resize(large, MEDIUM_WIDTH);
+            BufferedImage thumbnail = resize(medium, THUMBNAIL_WIDTH);
+
+            try {
+                uploaded.add(storageService.putObject(largeKey, encode(large), outputContentType));
+                uploaded.add(storageService.putObject(mediumKey, encode(medium), outputContentType));
+                uploaded.add(storageService.putObject(thumbnailKey, encode(thumbnail), outputContentType));
+            } catch (RuntimeException e) {
+                mediaDeletionService.scheduleDeletion(uploaded);
+                throw e;
+            }
+        }
+
+        int updated = listingImageRepository.updateVariants(
+                message.imageId(), message.imageUrl(), uploaded.get(2), uploaded.get(1), uploaded.get(0));
+        if (updated == 0) {
+            // A imagem foi removida (ou substituída) entretanto.
+            mediaDeletionService.scheduleDeletion(uploaded);
+        }
+        sample.stop(meterRegistry.timer("media.derivatives.duration"));
+    }
+
+    public EncodedImage encodeResized(BufferedImage image, int maxWidth) {
+        return new EncodedImage(encode(toRgb(resize(image, maxWidth))), outputContentType, encodedExtension());
+    }
+
+    public String encodedExtension() {
+        return outputFormat.equals("webp") ? ".webp" : ".jpg";
+    }
+
+    private BufferedImage decode(InputStream in, int targetWidth) throws IOException {
+        try (ImageInputStream imageInput = ImageIO.createImageInputStream(in)) {
+            if (imageInput == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                // Subamostragem na leitura: um original de 8000px não chega a existir inteiro em memória.
+                int subsampling = Math.max(1, reader.getWidth(0) / (targetWidth * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage resize(BufferedImage source, int targetWidth) {
+        if (source.getWidth() <= targetWidth) {
+            return source;
+        }
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        // Reduções sucessivas a metade mantêm a qualidade com interpolação bilinear.
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(current, 0, 0, width, height, null);
+            graphics.dispose();
+            current = next;
+        } while (width > targetWidth);
+        return current;
+    }
+
+    private BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        graphics.drawImage(image, 0, 0, null);
+        graphics.dispose();
+        return rgb;
+    }
+
+    private byte[] encode(BufferedImage image) {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(outputFormat).next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(imageOutput);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionTypes() != null && param.getCompressionType() == null) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(quality);
+            }
+            if (param.canWriteProgressive()) {
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao codificar variante da imagem", e);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
@@ -1,7 +1,9 @@
 package com.party.backend.service;
 
 import com.party.backend.model.User;
+import com.party.backend.model.enums.Role;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -14,15 +16,26 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JwtService {
 
-    private final String secretKey;
+    private final SecretKey signInKey;
+    private final JwtParser jwtParser;
+    private final long accessTokenTtlMillis;
 
-    public JwtService(@Value("${secretKey}") String secretKey) {
-        this.secretKey = secretKey;
+    public JwtService(
+            @Value("${secretKey}") String secretKey,
+            @Value("${jwt.access-token-ttl-minutes:15}") long accessTokenTtlMinutes
+    ) {
+        this.accessTokenTtlMillis = TimeUnit.MINUTES.toMillis(accessTokenTtlMinutes);
+        this.signInKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signInKey)
+                .build();
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -39,44 +52,30 @@ public class JwtService {
                 .builder()
                 .setClaims(extraClaims)
                 .setSubject(userDetails.getUsername())
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 24))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .setExpiration(new Date(System.currentTimeMillis() + accessTokenTtlMillis))
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+    // Verifica assinatura e expiração numa só passagem; lança JwtException se o token for inválido.
+    public Claims parseClaims(String token) {
+        return jwtParser.parseSignedClaims(token).getPayload();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Constrói o principal a partir das claims emitidas por generateToken, sem ir à base de dados.
+    public Optional<User> buildPrincipal(Claims claims) {
+        Object userId = claims.get("userId");
+        String role = claims.get("role", String.class);
+        if (!(userId instanceof Number) || role == null) {
+            return Optional.empty();
+        }
+        User user = new User();
+        user.setId(((Number) userId).longValue());
+        user.setEmail(claims.getSubject());
+        user.setFirstName(claims.get("firstName", String.class));
+        user.setRole(Role.valueOf(role));
+        return Optional.of(user);
     }
 }
\ No newline at end of file
@@ -0,0 +1,426 @@
+package com.party.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.party.backend.document.ListingDocument;
+import com.party.backend.dto.listing.ListingImportResultDTO;
+import com.party.backend.dto.listing.ListingRequestDTO;
+import com.party.backend.model.Amenity;
+import com.party.backend.model.ListingImage;
+import com.party.backend.model.User;
+import com.party.backend.repository.AmenityRepository;
+import com.party.backend.repository.ListingImportRepository;
+import com.party.backend.repository.ListingImportRepository.ImportListing;
+import com.party.backend.repository.ListingImportRepository.ImportedChunk;
+import com.party.backend.repository.ListingSearchRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Importação em massa de listings a partir de NDJSON (um ListingRequestDTO por linha) ou CSV com cabeçalho
+ * (title, description, location, price, maxGuests, amenityIds, imageUrls; as listas separadas por '|').
+ * O corpo é lido em streaming e validado linha a linha; as linhas válidas são gravadas em blocos, cada um
+ * na sua transação, e indexadas no Elasticsearch com um bulk por bloco. Se a base de dados rejeitar um bloco,
+ * este é dividido até isolar as linhas inválidas. Vídeos não são importados.
+ */
+@Slf4j
+@Service
+public class ListingImportService {
+
+    private static final String LIST_SEPARATOR = "\\|";
+
+    private record ParsedRow(long line, ListingRequestDTO request, String error) {
+    }
+
+    private interface RowSource {
+        ParsedRow next() throws IOException;
+    }
+
+    private final ListingImportRepository listingImportRepository;
+    private final AmenityRepository amenityRepository;
+    private final ListingSearchRepository listingSearchRepository;
+    private final ImageDerivativeService imageDerivativeService;
+    private final MediaDeletionService mediaDeletionService;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+    private final int maxImagesPerListing;
+    private final int maxReportedErrors;
+
+    public ListingImportService(
+            ListingImportRepository listingImportRepository,
+            AmenityRepository amenityRepository,
+            ListingSearchRepository listingSearchRepository,
+            ImageDerivativeService imageDerivativeService,
+            MediaDeletionService mediaDeletionService,
+            PlatformTransactionManager transactionManager,
+            Validator validator,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${listing.import.chunk-size:500}") int chunkSize,
+            @Value("${listing.import.max-images-per-listing:50}") int maxImagesPerListing,
+            @Value("${listing.import.max-reported-errors:1000}") int maxReportedErrors
+    ) {
+        this.listingImportRepository = listingImportRepository;
+        this.amenityRepository = amenityRepository;
+        this.listingSearchRepository = listingSearchRepository;
+        this.imageDerivativeService = imageDerivativeService;
+        this.mediaDeletionService = mediaDeletionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+        this.maxImagesPerListing = maxImagesPerListing;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public ListingImportResultDTO importListings(InputStream body, String contentType, User host) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        RowSource source = openSource(reader, contentType);
+        Map<Integer, String> amenityNames = amenityRepository.findAll().stream()
+                .collect(Collectors.toMap(Amenity::getId, Amenity::getName));
+
+        long start = System.nanoTime();
+        ImportProgress progress = new ImportProgress();
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+        List<ImportListing> chunk = new ArrayList<>(chunkSize);
+        ParsedRow row;
+        while ((row = source.next()) != null) {
+            String error = row.error() != null ? row.error() : validate(row.request(), amenityNames);
+            if (error != null) {
+                progress.fail(row.line(), error);
+                continue;
+            }
+            chunkLines.add(row.line());
+            chunk.add(toImportListing(row.request()));
+            if (chunk.size() >= chunkSize) {
+                flushChunk(host, chunkLines, chunk, amenityNames, progress);
+                chunkLines = new ArrayList<>(chunkSize);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            flushChunk(host, chunkLines, chunk, amenityNames, progress);
+        }
+
+        long durationNanos = System.nanoTime() - start;
+        int total = progress.imported + progress.failed;
+        double seconds = Math.max(durationNanos / 1_000_000_000.0, 0.001);
+        meterRegistry.counter("listing.import.rows", "outcome", "imported").increment(progress.imported);
+        meterRegistry.counter("listing.import.rows", "outcome", "failed").increment(progress.failed);
+        meterRegistry.timer("listing.import.duration").record(Duration.ofNanos(durationNanos));
+        log.info("Importação de listings do host {}: {} importados, {} com erro em {} ms ({} linhas/s)",
+                host.getId(), progress.imported, progress.failed, durationNanos / 1_000_000, Math.round(total / seconds));
+
+        return ListingImportResultDTO.builder()
+                .imported(progress.imported)
+                .failed(progress.failed)
+                .durationMs(durationNanos / 1_000_000)
+                .rowsPerSecond(Math.round(total / seconds * 10) / 10.0)
+                .errors(progress.errors)
+                .errorsTruncated(progress.failed > progress.errors.size())
+                .build();
+    }
+
+    private void flushChunk(User host, List<Long> lines, List<ImportListing> chunk,
+                            Map<Integer, String> amenityNames, ImportProgress progress) {
+        ImportedChunk imported;
+        List<String> imageUrls = chunk.stream().flatMap(listing -> listing.imageUrls().stream()).toList();
+        try {
+            // O lock das imagens e o insert partilham a transação: o cleaner não apaga os ficheiros até ao commit.
+            imported = transactionTemplate.execute(status -> {
+                mediaDeletionService.lockForAttach(imageUrls);
+                return listingImportRepository.importChunk(host.getId(), chunk);
+            });
+        } catch (DataIntegrityViolationException | IllegalArgumentException e) {
+            if (chunk.size() > 1) {
+                // Divide o bloco ao meio até isolar as linhas rejeitadas; as outras são gravadas.
+                int middle = chunk.size() / 2;
+                flushChunk(host, lines.subList(0, middle), chunk.subList(0, middle), amenityNames, progress);
+                flushChunk(host, lines.subList(middle, lines.size()), chunk.subList(middle, chunk.size()), amenityNames, progress);
+                return;
+            }
+            meterRegistry.counter("listing.import.rows-rejected").increment();
+            if (e instanceof IllegalArgumentException) {
+                progress.fail(lines.get(0), e.getMessage());
+                return;
+            }
+            // O detalhe do Postgres inclui SQL e valores; fica no log, o cliente recebe uma mensagem genérica.
+            log.warn("Linha {} da importação rejeitada pela base de dados: {}", lines.get(0),
+                    ((DataIntegrityViolationException) e).getMostSpecificCause().getMessage());
+            progress.fail(lines.get(0), "A linha tem valores que não podem ser gravados");
+            return;
+        } catch (DataAccessException e) {
+            log.warn("Falha ao gravar bloco de {} listings importados: {}", chunk.size(), e.getMessage());
+            lines.forEach(line -> progress.fail(line, "Falha temporária ao gravar; importe a linha novamente"));
+            return;
+        }
+        progress.imported += chunk.size();
+
+        List<ListingDocument> documents = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            documents.add(toDocument(imported.listingIds().get(i), chunk.get(i), host, amenityNames));
+        }
+        try {
+            listingSearchRepository.saveAll(documents);
+        } catch (Exception e) {
+            // Os listings já estão gravados: uma falha no índice não anula o bloco, fica registada na métrica.
+            log.error("Falha ao indexar {} listings importados no Elasticsearch: {}", documents.size(), e.getMessage());
+            meterRegistry.counter("listing.import.index-failures").increment(documents.size());
+        }
+
+        imageDerivativeService.requestDerivatives(imported.images().stream().map(image -> {
+            ListingImage listingImage = new ListingImage();
+            listingImage.setId(image.id());
+            listingImage.setImageUrl(image.imageUrl());
+            return listingImage;
+        }).toList());
+    }
+
+    private String validate(ListingRequestDTO request, Map<Integer, String> amenityNames) {
+        Set<ConstraintViolation<ListingRequestDTO>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+        }
+        // O Postgres não aceita o carácter NUL em colunas de texto.
+        if (containsNul(request.getTitle()) || containsNul(request.getDescription()) || containsNul(request.getLocation())) {
+            return "O texto contém caracteres inválidos";
+        }
+        if (request.getAmenityIds() != null) {
+            for (Integer amenityId : request.getAmenityIds()) {
+                if (!amenityNames.containsKey(amenityId)) {
+                    return "Comodidade inexistente: " + amenityId;
+                }
+            }
+        }
+        if (request.getImageUrls() != null) {
+            if (request.getImageUrls().size() > maxImagesPerListing) {
+                return "Máximo de " + maxImagesPerListing + " imagens por listing";
+            }
+            if (request.getImageUrls().stream().anyMatch(url -> url == null || url.isBlank())) {
+                return "URL de imagem vazio";
+            }
+            if (request.getImageUrls().stream().anyMatch(ListingImportService::containsNul)) {
+                return "URL de imagem inválido";
+            }
+        }
+        return null;
+    }
+
+    private static boolean containsNul(String value) {
+        return value != null && value.indexOf('\u0000') >= 0;
+    }
+
+    private ImportListing toImportListing(ListingRequestDTO request) {
+        return new ImportListing(
+                request.getTitle(),
+                request.getDescription(),
+                request.getLocation(),
+                request.getPrice(),
+                request.getMaxGuests(),
+                request.getImageUrls() == null ? List.of() : new ArrayList<>(new LinkedHashSet<>(request.getImageUrls())),
+                request.getAmenityIds() == null ? Set.of() : request.getAmenityIds()
+        );
+    }
+
+    private ListingDocument toDocument(Long id, ImportListing listing, User host, Map<Integer, String> amenityNames) {
+        ListingDocument doc = new ListingDocument();
+        doc.setId(id);
+        doc.setTitle(listing.title());
+        doc.setDescription(listing.description());
+        doc.setLocation(listing.location());
+        doc.setPrice(listing.price());
+        doc.setMaxGuests(listing.maxGuests());
+        doc.setHostId(host.getId());
+        doc.setAmenities(listing.amenityIds().stream().map(amenityNames::get).toList());
+        return doc;
+    }
+
+    private RowSource openSource(BufferedReader reader, String contentType) throws IOException {
+        String type = contentType == null ? "" : contentType.toLowerCase();
+        if (type.contains("ndjson") || type.contains("jsonl")) {
+            return ndjsonSource(reader);
+        }
+        if (type.contains("csv")) {
+            return csvSource(reader);
+        }
+        throw new IllegalArgumentException("Formato de importação não suportado: use application/x-ndjson ou text/csv");
+    }
+
+    private RowSource ndjsonSource(BufferedReader reader) {
+        long[] lineNumber = {0};
+        return () -> {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber[0]++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new ParsedRow(lineNumber[0], objectMapper.readValue(line, ListingRequestDTO.class), null);
+                } catch (JsonProcessingException e) {
+                    return new ParsedRow(lineNumber[0], null, "JSON inválido: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        };
+    }
+
+    private RowSource csvSource(BufferedReader reader) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            return () -> null;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().replace("_", "").toLowerCase(), i);
+        }
+        for (String required : List.of("title", "description", "location", "price", "maxguests")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("Coluna obrigatória em falta no CSV: " + required);
+            }
+        }
+        return () -> {
+            List<String> record;
+            do {
+                record = csv.readRecord();
+            } while (record != null && record.size() == 1 && record.get(0).isBlank());
+            if (record == null) {
+                return null;
+            }
+            long line = csv.recordStartLine;
+            try {
+                ListingRequestDTO request = new ListingRequestDTO();
+                request.setTitle(column(record, columns, "title"));
+                request.setDescription(column(record, columns, "description"));
+                request.setLocation(column(record, columns, "location"));
+                String price = column(record, columns, "price");
+                request.setPrice(price == null ? null : new BigDecimal(price));
+                String maxGuests = column(record, columns, "maxguests");
+                request.setMaxGuests(maxGuests == null ? null : Integer.valueOf(maxGuests));
+                String amenityIds = column(record, columns, "amenityids");
+                if (amenityIds != null) {
+                    request.setAmenityIds(Arrays.stream(amenityIds.split(LIST_SEPARATOR))
+                            .map(String::trim).filter(id -> !id.isEmpty()).map(Integer::valueOf)
+                            .collect(Collectors.toSet()));
+                }
+                String imageUrls = column(record, columns, "imageurls");
+                if (imageUrls != null) {
+                    request.setImageUrls(Arrays.stream(imageUrls.split(LIST_SEPARATOR))
+                            .map(String::trim).filter(url -> !url.isEmpty()).toList());
+                }
+                return new ParsedRow(line, request, null);
+            } catch (NumberFormatException e) {
+                return new ParsedRow(line, null, "Valor numérico inválido: " + e.getMessage());
+            }
+        };
+    }
+
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private class ImportProgress {
+        int imported;
+        int failed;
+        final List<ListingImportResultDTO.RowError> errors = new ArrayList<>();
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ListingImportResultDTO.RowError(line, message));
+            }
+        }
+    }
+
+    /**
+     * Leitor CSV (RFC 4180) incremental: campos entre aspas podem conter separadores, aspas duplicadas e quebras de linha.
+     */
+    private static final class CsvReader {
+        private final BufferedReader reader;
+        private long line = 1;
+        long recordStartLine;
+
+        CsvReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            recordStartLine = line;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (next != -1) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    line++;
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
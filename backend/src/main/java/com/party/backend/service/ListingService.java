@@ -8,7 +8,11 @@ import com.party.backend.dto.listing.ListingResponseDTO;
 import com.party.backend.exception.UnauthorizedOperationException;
 import com.party.backend.model.*;
 import com.party.backend.repository.*;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.stereotype.Service;
@@ -27,6 +31,7 @@ import com.party.backend.model.ListingImage;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 @Service
@@ -42,6 +47,17 @@ public class ListingService {
     private final ListingSearchRepository listingSearchRepository;
     private final ElasticsearchOperations elasticsearchOperations;
     private final UserRepository userRepository;
+    private final ChatRoomMembershipCache chatRoomMembershipCache;
+    private final ImageDerivativeService imageDerivativeService;
+    private final VideoThumbnailService videoThumbnailService;
+    private final MediaDeletionService mediaDeletionService;
+    private final Validator validator;
+    @Value("${search.backend:elasticsearch}")
+    private String searchBackend;
+
+    @Value("${search.max-results:10}")
+    private int searchMaxResults;
+
     private static final Logger logger = LoggerFactory.getLogger(ListingService.class);
 
     private static final long MAX_PHOTO_SIZE_MB = 10;
@@ -104,15 +120,18 @@ public class ListingService {
                 .orElseThrow(() -> new ResourceNotFoundException("Listing not found with id: " + listingId));
         List<String> imageUrls = listingImageRepository.findAllByListingIdOrderByIsCoverDesc(listingId)
                 .stream()
-                .map(ListingImage::getImageUrl)
+                .map(this::detailImageUrl)
                 .collect(Collectors.toList());
-        List<String> videoUrls = listingVideoRepository.findUrlsByListingId(listingId);
+        List<ListingVideo> videos = listingVideoRepository.findAllByListingIdOrderByIdAsc(listingId);
+        List<String> videoUrls = videos.stream().map(ListingVideo::getVideoUrl).collect(Collectors.toList());
         List<String> amenityNames = amenityRepository.findAmenitiesForListingIds(Set.of(listingId))
                 .stream()
                 .map(AmenityRepository.AmenityProjection::getAmenityName)
                 .sorted()
                 .collect(Collectors.toList());
-        return mapToListingResponse(listing, imageUrls, videoUrls, amenityNames);
+        ListingResponseDTO response = mapToListingResponse(listing, imageUrls, videoUrls, amenityNames);
+        response.setThumbnailUrl(firstVideoThumbnail(videos));
+        return response;
     }
 
     @Transactional
@@ -152,56 +171,186 @@ public class ListingService {
             Set<Amenity> amenities = new HashSet<>(amenityRepository.findAllById(request.getAmenityIds()));
             listing.setAmenities(amenities);
         }
+        lockAttachedMedia(listing.getImages(), listing.getVideos());
         Listing savedListing = listingRepository.save(listing);
+        imageDerivativeService.requestDerivatives(savedListing.getImages());
+        videoThumbnailService.requestThumbnails(savedListing.getVideos());
         listingSearchRepository.save(mapToListingDocument(savedListing));
         return mapToListingResponse(savedListing);
     }
 
     @Transactional
     public ListingResponseDTO updateListing(Long listingId, ListingRequestDTO request, User currentUser) {
+        return applyUpdate(listingId, request, currentUser, false);
+    }
+
+    @Transactional
+    public ListingResponseDTO patchListing(Long listingId, ListingRequestDTO request, User currentUser) {
+        validatePresentFields(request);
+        return applyUpdate(listingId, request, currentUser, true);
+    }
+
+    // No PATCH os campos ausentes ficam como estão, por isso só se aplicam as regras do DTO aos que vêm no pedido.
+    private void validatePresentFields(ListingRequestDTO request) {
+        Map<String, Object> present = new LinkedHashMap<>();
+        present.put("title", request.getTitle());
+        present.put("description", request.getDescription());
+        present.put("location", request.getLocation());
+        present.put("price", request.getPrice());
+        present.put("maxGuests", request.getMaxGuests());
+        String errors = present.entrySet().stream()
+                .filter(field -> field.getValue() != null)
+                .flatMap(field -> validator.validateProperty(request, field.getKey()).stream())
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(errors);
+        }
+    }
+
+    /**
+     * Aplica só as diferenças: campos iguais não sujam a entidade e nas coleções filhas apenas as linhas
+     * removidas/adicionadas são tocadas. Em modo parcial (PATCH) os campos a null ficam como estão.
+     */
+    private ListingResponseDTO applyUpdate(Long listingId, ListingRequestDTO request, User currentUser, boolean partial) {
         Listing listing = listingRepository.findById(listingId)
                 .orElseThrow(() -> new ResourceNotFoundException("Listing not found with id: " + listingId));
         if (!listing.getHost().getId().equals(currentUser.getId())) {
             throw new UnauthorizedOperationException("User does not have permission to update this listing");
         }
-        listing.setTitle(request.getTitle());
-        listing.setDescription(request.getDescription());
-        listing.setLocation(request.getLocation());
-        listing.setPrice(request.getPrice());
-        listing.setMaxGuests(request.getMaxGuests());
 
-        // (O orphanRemoval=true + .clear() trata disto)
-        // NOTA: Isto apaga os ficheiros do MinIO ANTES de adicionar os novos.
-        // TODO: Esta lógica de 'delete' ainda está a dar bugs.
-        listing.getImages().clear();
-        listing.getVideos().clear();
-        if (request.getImageUrls() != null && !request.getImageUrls().isEmpty()) {
-            boolean isFirstImage = true;
-            for (String imageUrl : request.getImageUrls()) {
-                ListingImage image = new ListingImage();
-                image.setImageUrl(imageUrl);
+        boolean indexedFieldsChanged = false;
+        if (!partial || request.getTitle() != null) {
+            indexedFieldsChanged |= !Objects.equals(listing.getTitle(), request.getTitle());
+            listing.setTitle(request.getTitle());
+        }
+        if (!partial || request.getDescription() != null) {
+            indexedFieldsChanged |= !Objects.equals(listing.getDescription(), request.getDescription());
+            listing.setDescription(request.getDescription());
+        }
+        if (!partial || request.getLocation() != null) {
+            indexedFieldsChanged |= !Objects.equals(listing.getLocation(), request.getLocation());
+            listing.setLocation(request.getLocation());
+        }
+        if ((!partial || request.getPrice() != null)
+                && (listing.getPrice() == null || request.getPrice() == null || listing.getPrice().compareTo(request.getPrice()) != 0)) {
+            indexedFieldsChanged = true;
+            listing.setPrice(request.getPrice());
+        }
+        if (!partial || request.getMaxGuests() != null) {
+            indexedFieldsChanged |= !Objects.equals(listing.getMaxGuests(), request.getMaxGuests());
+            listing.setMaxGuests(request.getMaxGuests());
+        }
+
+        List<String> removedFiles = new ArrayList<>();
+        List<ListingImage> addedImages = new ArrayList<>();
+        List<ListingVideo> addedVideos = new ArrayList<>();
+        if (!partial || request.getImageUrls() != null) {
+            addedImages = syncImages(listing, request.getImageUrls(), removedFiles);
+        }
+        if (!partial || request.getVideoUrls() != null) {
+            addedVideos = syncVideos(listing, request.getVideoUrls(), removedFiles);
+        }
+        if (!partial || request.getAmenityIds() != null) {
+            indexedFieldsChanged |= syncAmenities(listing, request.getAmenityIds());
+        }
+        lockAttachedMedia(addedImages, addedVideos);
+
+        if (!addedImages.isEmpty() || !addedVideos.isEmpty()) {
+            listingRepository.flush();
+            imageDerivativeService.requestDerivatives(addedImages);
+            videoThumbnailService.requestThumbnails(addedVideos);
+        }
+        mediaDeletionService.scheduleDeletion(removedFiles);
+        if (indexedFieldsChanged) {
+            listingSearchRepository.save(mapToListingDocument(listing));
+        }
+        return mapToListingResponse(listing);
+    }
+
+    // Tem de correr na transação que grava as referências (ver MediaDeletionService.lockForAttach).
+    private void lockAttachedMedia(Collection<ListingImage> images, Collection<ListingVideo> videos) {
+        List<String> fileUrls = Stream.concat(
+                images.stream().map(ListingImage::getImageUrl),
+                videos.stream().map(ListingVideo::getVideoUrl)
+        ).toList();
+        if (!fileUrls.isEmpty()) {
+            mediaDeletionService.lockForAttach(fileUrls);
+        }
+    }
+
+    private List<ListingImage> syncImages(Listing listing, List<String> requestedUrls, List<String> removedFiles) {
+        List<String> requested = requestedUrls == null ? List.of() : new ArrayList<>(new LinkedHashSet<>(requestedUrls));
+        Set<String> requestedSet = new HashSet<>(requested);
+        Map<String, ListingImage> existingByUrl = new HashMap<>();
+        for (Iterator<ListingImage> it = listing.getImages().iterator(); it.hasNext(); ) {
+            ListingImage image = it.next();
+            if (requestedSet.contains(image.getImageUrl())) {
+                existingByUrl.put(image.getImageUrl(), image);
+            } else {
+                Stream.of(image.getImageUrl(), image.getThumbnailUrl(), image.getMediumUrl(), image.getLargeUrl())
+                        .filter(Objects::nonNull)
+                        .forEach(removedFiles::add);
+                it.remove();
+            }
+        }
+        List<ListingImage> added = new ArrayList<>();
+        for (int i = 0; i < requested.size(); i++) {
+            String url = requested.get(i);
+            boolean cover = i == 0;
+            ListingImage image = existingByUrl.get(url);
+            if (image == null) {
+                image = new ListingImage();
+                image.setImageUrl(url);
                 image.setListing(listing);
-                image.setCover(isFirstImage);
-                isFirstImage = false;
                 listing.getImages().add(image);
+                added.add(image);
+            }
+            if (image.isCover() != cover) {
+                image.setCover(cover);
             }
         }
-        if (request.getVideoUrls() != null && !request.getVideoUrls().isEmpty()) {
-            for (String videoUrl : request.getVideoUrls()) {
+        return added;
+    }
+
+    private List<ListingVideo> syncVideos(Listing listing, List<String> requestedUrls, List<String> removedFiles) {
+        Set<String> requested = requestedUrls == null ? Set.of() : new LinkedHashSet<>(requestedUrls);
+        Set<String> kept = new HashSet<>();
+        for (Iterator<ListingVideo> it = listing.getVideos().iterator(); it.hasNext(); ) {
+            ListingVideo video = it.next();
+            if (requested.contains(video.getVideoUrl())) {
+                kept.add(video.getVideoUrl());
+            } else {
+                removedFiles.add(video.getVideoUrl());
+                if (video.getThumbnailUrl() != null) {
+                    removedFiles.add(video.getThumbnailUrl());
+                }
+                it.remove();
+            }
+        }
+        List<ListingVideo> added = new ArrayList<>();
+        for (String url : requested) {
+            if (!kept.contains(url)) {
                 ListingVideo video = new ListingVideo();
-                video.setVideoUrl(videoUrl);
+                video.setVideoUrl(url);
                 video.setListing(listing);
                 listing.getVideos().add(video);
+                added.add(video);
             }
         }
-        listing.getAmenities().clear();
-        if (request.getAmenityIds() != null && !request.getAmenityIds().isEmpty()) {
-            Set<Amenity> amenities = new HashSet<>(amenityRepository.findAllById(request.getAmenityIds()));
-            listing.setAmenities(amenities);
+        return added;
+    }
+
+    private boolean syncAmenities(Listing listing, Set<Integer> requestedIds) {
+        Set<Integer> requested = requestedIds == null ? Set.of() : requestedIds;
+        boolean removed = listing.getAmenities().removeIf(amenity -> !requested.contains(amenity.getId()));
+        Set<Integer> existingIds = listing.getAmenities().stream().map(Amenity::getId).collect(Collectors.toSet());
+        Set<Integer> toAdd = requested.stream().filter(id -> !existingIds.contains(id)).collect(Collectors.toSet());
+        if (!toAdd.isEmpty()) {
+            listing.getAmenities().addAll(amenityRepository.findAllById(toAdd));
         }
-        Listing updatedListing = listingRepository.save(listing);
-        listingSearchRepository.save(mapToListingDocument(updatedListing));
-        return mapToListingResponse(updatedListing);
+        return removed || !toAdd.isEmpty();
     }
 
     @Transactional
@@ -212,19 +361,15 @@ public class ListingService {
         if (!listing.getHost().getId().equals(currentUser.getId())) {
             throw new UnauthorizedOperationException("User does not have permission to delete this listing");
         }
-        List<String> imageUrls = listingImageRepository.findUrlsByListingId(listingId);
-        for (String url : imageUrls) {
-            storageService.deleteFile(url);
-        }
-        List<String> videoUrls = listingVideoRepository.findUrlsByListingId(listingId);
-        for (String url : videoUrls) {
-            storageService.deleteFile(url);
-        }
+        List<String> fileUrls = new ArrayList<>(listingImageRepository.findAllFileUrlsByListingId(listingId));
+        fileUrls.addAll(listingVideoRepository.findAllFileUrlsByListingId(listingId));
+        mediaDeletionService.scheduleDeletion(fileUrls);
 
         listingSearchRepository.deleteById(listingId);
 
         listingImageRepository.deleteByListingId(listingId);
         listingVideoRepository.deleteByListingId(listingId);
+        chatRoomMembershipCache.evictAll(bookingRepository.findIdsByListingId(listingId));
         bookingRepository.deleteByListingId(listingId);
         listingRepository.deleteAmenitiesByListingId(listingId);
         listingRepository.delete(listing);
@@ -283,15 +428,7 @@ public class ListingService {
             throw new IllegalArgumentException("O ficheiro excede o limite de " + MAX_PHOTO_SIZE_MB + "MB para fotos.");
         }
         String imageUrl = storageService.uploadFile(file);
-        ListingImage listingImage = new ListingImage();
-        listingImage.setListing(listing);
-        listingImage.setImageUrl(imageUrl);
-        List<String> existingImages = listingImageRepository.findUrlsByListingId(listingId);
-        if (existingImages.isEmpty()) {
-            listingImage.setCover(true);
-        }
-        listingImageRepository.save(listingImage);
-        return imageUrl;
+        return attachImage(listing, imageUrl);
     }
 
     @Transactional
@@ -302,17 +439,86 @@ public class ListingService {
             throw new UnauthorizedOperationException("User does not have permission to add videos to this listing");
         }
         String videoUrl = storageService.uploadFile(file);
+        return attachVideo(listing, videoUrl);
+    }
+
+    @Transactional(readOnly = true)
+    public void checkListingOwnership(Long listingId, User currentUser) {
+        requireOwnedListing(listingId, currentUser);
+    }
+
+    @Transactional
+    public String attachImageToListing(Long listingId, String imageUrl, User currentUser) {
+        return attachImage(requireOwnedListing(listingId, currentUser), imageUrl);
+    }
+
+    @Transactional
+    public String attachVideoToListing(Long listingId, String videoUrl, User currentUser) {
+        return attachVideo(requireOwnedListing(listingId, currentUser), videoUrl);
+    }
+
+    private Listing requireOwnedListing(Long listingId, User currentUser) {
+        Listing listing = listingRepository.findById(listingId)
+                .orElseThrow(() -> new ResourceNotFoundException("Listing not found with id: " + listingId));
+        if (!listing.getHost().getId().equals(currentUser.getId())) {
+            throw new UnauthorizedOperationException("User does not have permission to add media to this listing");
+        }
+        return listing;
+    }
+
+    private String attachImage(Listing listing, String imageUrl) {
+        mediaDeletionService.lockForAttach(List.of(imageUrl));
+        ListingImage listingImage = new ListingImage();
+        listingImage.setListing(listing);
+        listingImage.setImageUrl(imageUrl);
+        List<String> existingImages = listingImageRepository.findUrlsByListingId(listing.getId());
+        if (existingImages.isEmpty()) {
+            listingImage.setCover(true);
+        }
+        listingImageRepository.save(listingImage);
+        imageDerivativeService.requestDerivatives(List.of(listingImage));
+        return imageUrl;
+    }
+
+    private String attachVideo(Listing listing, String videoUrl) {
+        mediaDeletionService.lockForAttach(List.of(videoUrl));
         ListingVideo listingVideo = new ListingVideo();
         listingVideo.setListing(listing);
         listingVideo.setVideoUrl(videoUrl);
-        // TODO: Adicionar lógica para extrair um thumbnail (capa) do vídeo (v2.0)
         listingVideoRepository.save(listingVideo);
+        videoThumbnailService.requestThumbnails(List.of(listingVideo));
         return videoUrl;
     }
 
     @Transactional(readOnly = true)
     public List<ListingResponseDTO> searchListings(String query) {
+        List<ListingDocument> documents = "postgres".equalsIgnoreCase(searchBackend)
+                ? searchInPostgres(query)
+                : searchInElasticsearch(query);
+        if (documents.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> listingIds = documents.stream().map(ListingDocument::getId).collect(Collectors.toSet());
+        Set<Long> hostIds = documents.stream().map(ListingDocument::getHostId).collect(Collectors.toSet());
+        Map<Long, String> coverImageByListingId = listingImageRepository.findCoverImagesForListingIds(listingIds)
+                .stream()
+                .collect(Collectors.toMap(
+                        ListingImageRepository.CoverImageProjection::getListingId,
+                        ListingImageRepository.CoverImageProjection::getImageUrl,
+                        (existing, replacement) -> existing
+                ));
+        Map<Long, User> hostsById = userRepository.findAllById(hostIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return documents.stream()
+                .map(doc -> mapDocumentToResponse(
+                        doc,
+                        hostsById.get(doc.getHostId()),
+                        coverImageByListingId.get(doc.getId())
+                ))
+                .collect(Collectors.toList());
+    }
 
+    private List<ListingDocument> searchInElasticsearch(String query) {
         String jsonQuery = """
         {
             "bool": {
@@ -329,32 +535,40 @@ public class ListingService {
         }
         """.formatted(query);
         Query searchQuery = new StringQuery(jsonQuery);
+        searchQuery.setPageable(PageRequest.of(0, searchMaxResults));
         SearchHits<ListingDocument> searchHits = elasticsearchOperations.search(searchQuery, ListingDocument.class);
 
-        List<ListingDocument> documents = searchHits.getSearchHits().stream()
+        return searchHits.getSearchHits().stream()
                 .map(SearchHit::getContent)
                 .toList();
-        if (documents.isEmpty()) {
+    }
+
+    /**
+     * Alternativa ao Elasticsearch (search.backend=postgres): mesma pesquisa sobre título, descrição e localização,
+     * com tolerância a erros por trigramas, devolvida como ListingDocument para partilhar o mapeamento.
+     */
+    private List<ListingDocument> searchInPostgres(String query) {
+        List<ListingRepository.ListingSearchProjection> rows = listingRepository.searchByText(query, searchMaxResults);
+        if (rows.isEmpty()) {
             return List.of();
         }
-        Set<Long> listingIds = documents.stream().map(ListingDocument::getId).collect(Collectors.toSet());
-        Set<Long> hostIds = documents.stream().map(ListingDocument::getHostId).collect(Collectors.toSet());
-        Map<Long, String> coverImageByListingId = listingImageRepository.findCoverImagesForListingIds(listingIds)
-                .stream()
-                .collect(Collectors.toMap(
-                        ListingImageRepository.CoverImageProjection::getListingId,
-                        ListingImageRepository.CoverImageProjection::getImageUrl,
-                        (existing, replacement) -> existing
-                ));
-        Map<Long, User> hostsById = userRepository.findAllById(hostIds).stream()
-                .collect(Collectors.toMap(User::getId, Function.identity()));
-        return documents.stream()
-                .map(doc -> mapDocumentToResponse(
-                        doc,
-                        hostsById.get(doc.getHostId()),
-                        coverImageByListingId.get(doc.getId())
-                ))
-                .collect(Collectors.toList());
+        Map<Long, List<String>> amenitiesByListingId = new HashMap<>();
+        amenityRepository.findAmenitiesForListingIds(rows.stream().map(ListingRepository.ListingSearchProjection::getId).collect(Collectors.toSet()))
+                .forEach(projection -> amenitiesByListingId
+                        .computeIfAbsent(projection.getListingId(), k -> new ArrayList<>())
+                        .add(projection.getAmenityName()));
+        return rows.stream().map(row -> {
+            ListingDocument doc = new ListingDocument();
+            doc.setId(row.getId());
+            doc.setTitle(row.getTitle());
+            doc.setDescription(row.getDescription());
+            doc.setLocation(row.getLocation());
+            doc.setPrice(row.getPrice());
+            doc.setMaxGuests(row.getMaxGuests());
+            doc.setHostId(row.getHostId());
+            doc.setAmenities(amenitiesByListingId.getOrDefault(row.getId(), List.of()));
+            return doc;
+        }).toList();
     }
 
     private ListingResponseDTO mapToListingResponse(Listing listing, List<String> imageUrls, List<String> videoUrls, List<String> amenityNames) {
@@ -403,7 +617,7 @@ public class ListingService {
         if (listing.getImages() != null && !listing.getImages().isEmpty()) {
             List<String> sortedImageUrls = listing.getImages().stream()
                     .sorted(Comparator.comparing(ListingImage::isCover).reversed())
-                    .map(ListingImage::getImageUrl)
+                    .map(this::detailImageUrl)
                     .collect(Collectors.toList());
             response.setImageUrls(sortedImageUrls);
         } else {
@@ -419,14 +633,27 @@ public class ListingService {
         }
 
         if (listing.getVideos() != null) {
-            List<String> videoUrls = listing.getVideos().stream()
-                    .map(ListingVideo::getVideoUrl)
-                    .collect(Collectors.toList());
-            response.setVideoUrls(videoUrls);
+            List<ListingVideo> videos = listing.getVideos().stream()
+                    .sorted(Comparator.comparing(ListingVideo::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                    .toList();
+            response.setVideoUrls(videos.stream().map(ListingVideo::getVideoUrl).collect(Collectors.toList()));
+            response.setThumbnailUrl(firstVideoThumbnail(videos));
         }
         return response;
     }
 
+    private String firstVideoThumbnail(List<ListingVideo> videos) {
+        return videos.stream()
+                .map(ListingVideo::getThumbnailUrl)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private String detailImageUrl(ListingImage image) {
+        return image.getLargeUrl() != null ? image.getLargeUrl() : image.getImageUrl();
+    }
+
     private ListingDocument mapToListingDocument(Listing listing) {
         ListingDocument doc = new ListingDocument();
         doc.setId(listing.getId());
@@ -0,0 +1,212 @@
+package com.party.backend.service;
+
+import com.party.backend.repository.MediaReferenceRepository;
+import com.party.backend.repository.PendingDeletionRepository;
+import com.party.backend.repository.PendingDeletionRepository.FailedDeletion;
+import com.party.backend.repository.PendingDeletionRepository.PendingDeletion;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Remoção de ficheiros do MinIO fora das transações de negócio. As chaves são gravadas em
+ * pending_deletion na mesma transação que apaga as linhas (um rollback não apaga ficheiros em uso)
+ * e um cleaner em background apaga-as em lotes de DeleteObjects, com retries e backoff exponencial.
+ * Objetos ainda referenciados por outro listing (conteúdo partilhado) são mantidos. A verificação e a
+ * remoção são feitas sob um advisory lock por chave, o mesmo que {@link #lockForAttach} toma ao
+ * reaproveitar um objeto sha256-, para que uma referência ainda por commitar não fique sem ficheiro.
+ */
+@Slf4j
+@Service
+public class MediaDeletionService {
+
+    private static final int MAX_KEYS_PER_REQUEST = 1000;
+
+    private final PendingDeletionRepository pendingDeletionRepository;
+    private final MediaReferenceRepository mediaReferenceRepository;
+    private final StorageService storageService;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final long leaseSeconds;
+    private final long maxBackoffSeconds;
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final ExecutorService wakeUpExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "media-deletion");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public MediaDeletionService(
+            PendingDeletionRepository pendingDeletionRepository,
+            MediaReferenceRepository mediaReferenceRepository,
+            StorageService storageService,
+            MeterRegistry meterRegistry,
+            PlatformTransactionManager transactionManager,
+            @Value("${media.deletion.lease-seconds:300}") long leaseSeconds,
+            @Value("${media.deletion.max-backoff-seconds:3600}") long maxBackoffSeconds
+    ) {
+        this.pendingDeletionRepository = pendingDeletionRepository;
+        this.mediaReferenceRepository = mediaReferenceRepository;
+        this.storageService = storageService;
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leaseSeconds = leaseSeconds;
+        this.maxBackoffSeconds = maxBackoffSeconds;
+    }
+
+    public void scheduleDeletion(Collection<String> fileUrls) {
+        if (fileUrls.isEmpty()) {
+            return;
+        }
+        scheduleKeyDeletion(fileUrls.stream().map(storageService::keyFromUrl).distinct().toList());
+    }
+
+    public void scheduleKeyDeletion(Collection<String> objectKeys) {
+        if (objectKeys.isEmpty()) {
+            return;
+        }
+        pendingDeletionRepository.enqueue(objectKeys);
+        meterRegistry.counter("media.deletion.scheduled").increment(objectKeys.size());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeUp();
+                }
+            });
+        } else {
+            wakeUp();
+        }
+    }
+
+    /**
+     * Chamado na transação que grava as referências: depois do lock, o cleaner não consegue apagar estes
+     * objetos até ao commit, e se já os tiver apagado o upload é recusado em vez de ficar a apontar para nada.
+     */
+    public void lockForAttach(Collection<String> fileUrls) {
+        List<String> sharedKeys = fileUrls.stream()
+                .map(storageService::keyFromUrl)
+                .filter(storageService::isContentAddressed)
+                .distinct()
+                .toList();
+        if (sharedKeys.isEmpty()) {
+            return;
+        }
+        mediaReferenceRepository.lockKeys(sharedKeys);
+        for (String key : sharedKeys) {
+            if (storageService.headObject(key).isEmpty()) {
+                meterRegistry.counter("media.deletion.attach-conflicts").increment();
+                throw new IllegalArgumentException("O ficheiro foi removido entretanto; repita o upload.");
+            }
+        }
+    }
+
+    private void wakeUp() {
+        wakeUpExecutor.execute(this::drain);
+    }
+
+    @Scheduled(fixedDelayString = "${media.deletion.interval-ms:30000}")
+    public void drain() {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<PendingDeletion> batch;
+            do {
+                batch = pendingDeletionRepository.claimBatch(MAX_KEYS_PER_REQUEST, leaseSeconds);
+                if (!batch.isEmpty()) {
+                    List<PendingDeletion> claimed = batch;
+                    transactionTemplate.executeWithoutResult(status -> deleteBatch(claimed));
+                }
+            } while (batch.size() == MAX_KEYS_PER_REQUEST);
+        } catch (Exception e) {
+            log.warn("Falha ao processar remoções pendentes: {}", e.getMessage());
+        } finally {
+            draining.set(false);
+        }
+    }
+
+    private void deleteBatch(List<PendingDeletion> claimed) {
+        mediaReferenceRepository.lockKeys(claimed.stream().map(PendingDeletion::objectKey).toList());
+        Set<String> stillReferenced = mediaReferenceRepository.findReferencedUrls(claimed.stream()
+                        .map(pending -> storageService.publicUrlFor(pending.objectKey()))
+                        .toList())
+                .stream()
+                .map(storageService::keyFromUrl)
+                .collect(Collectors.toSet());
+        List<PendingDeletion> batch = new ArrayList<>();
+        List<Long> skipped = new ArrayList<>();
+        for (PendingDeletion pending : claimed) {
+            if (stillReferenced.contains(pending.objectKey())) {
+                skipped.add(pending.id());
+            } else {
+                batch.add(pending);
+            }
+        }
+        if (!skipped.isEmpty()) {
+            pendingDeletionRepository.deleteAll(skipped);
+            meterRegistry.counter("media.deletion.still-referenced").increment(skipped.size());
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<String> keys = batch.stream().map(PendingDeletion::objectKey).distinct().toList();
+        Map<String, String> errors;
+        try {
+            errors = storageService.deleteObjects(keys);
+            meterRegistry.counter("media.deletion.requests").increment();
+        } catch (Exception e) {
+            meterRegistry.counter("media.deletion.request-failures").increment();
+            log.warn("DeleteObjects falhou para {} chaves: {}", keys.size(), e.getMessage());
+            pendingDeletionRepository.markFailed(batch.stream()
+                    .map(pending -> new FailedDeletion(pending.id(), e.getMessage(), backoffSeconds(pending.attempts())))
+                    .toList());
+            return;
+        }
+
+        List<Long> deleted = new ArrayList<>();
+        List<FailedDeletion> failed = new ArrayList<>();
+        for (PendingDeletion pending : batch) {
+            String error = errors.get(pending.objectKey());
+            if (error == null) {
+                deleted.add(pending.id());
+            } else {
+                failed.add(new FailedDeletion(pending.id(), error, backoffSeconds(pending.attempts())));
+            }
+        }
+        pendingDeletionRepository.deleteAll(deleted);
+        meterRegistry.counter("media.deletion.deleted").increment(deleted.size());
+        if (!failed.isEmpty()) {
+            pendingDeletionRepository.markFailed(failed);
+            meterRegistry.counter("media.deletion.failed").increment(failed.size());
+            log.warn("{} ficheiros não foram apagados e serão repetidos", failed.size());
+        }
+    }
+
+    private long backoffSeconds(int attempts) {
+        return Math.min(maxBackoffSeconds, 10L << Math.min(attempts, 20));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wakeUpExecutor.shutdown();
+    }
+}
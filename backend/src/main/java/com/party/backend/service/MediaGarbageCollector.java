@@ -0,0 +1,210 @@
+package com.party.backend.service;
+
+import com.party.backend.repository.MediaReferenceRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reconcilia o bucket com a base de dados: percorre o bucket com ListObjectsV2 (ordem binária das
+ * chaves) e faz merge, numa só passagem, com as chaves referenciadas em listing_image/listing_video,
+ * lidas por keyset na mesma ordem, um lote por consulta. Objetos sem referência e mais antigos que o
+ * período de graça (uploads ainda por associar) são enviados para o cleaner de pending_deletion.
+ */
+@Slf4j
+@Service
+public class MediaGarbageCollector {
+
+    private static final String LOCK_KEY = "media:gc:lock";
+    private static final Duration LOCK_TTL = Duration.ofMinutes(5);
+    private static final int BATCH_SIZE = 1000;
+
+    public record Report(long scanned, long orphans, long bytesReclaimed, Duration elapsed) {
+    }
+
+    private final StorageService storageService;
+    private final MediaReferenceRepository mediaReferenceRepository;
+    private final MediaDeletionService mediaDeletionService;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final DefaultRedisScript<Long> releaseLockScript;
+    private final DefaultRedisScript<Long> extendLockScript;
+    private final boolean enabled;
+    private final Duration gracePeriod;
+    private final int referenceBatchSize;
+    private final AtomicLong lastBytesReclaimed = new AtomicLong();
+
+    public MediaGarbageCollector(
+            StorageService storageService,
+            MediaReferenceRepository mediaReferenceRepository,
+            MediaDeletionService mediaDeletionService,
+            StringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${media.gc.enabled:true}") boolean enabled,
+            @Value("${media.gc.grace-period-hours:24}") long gracePeriodHours,
+            @Value("${media.gc.reference-batch-size:10000}") int referenceBatchSize
+    ) {
+        this.storageService = storageService;
+        this.mediaReferenceRepository = mediaReferenceRepository;
+        this.mediaDeletionService = mediaDeletionService;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.releaseLockScript = script("redis/lock_release.lua");
+        this.extendLockScript = script("redis/lock_extend.lua");
+        this.enabled = enabled;
+        this.gracePeriod = Duration.ofHours(gracePeriodHours);
+        this.referenceBatchSize = referenceBatchSize;
+        meterRegistry.gauge("media.gc.last-bytes-reclaimed", lastBytesReclaimed);
+    }
+
+    private static DefaultRedisScript<Long> script(String path) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    @Scheduled(cron = "${media.gc.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        // Só um nó faz a reconciliação de cada vez. O token identifica o dono: o TTL é curto e prolongado
+        // durante o varrimento, e só quem o adquiriu o pode prolongar ou libertar.
+        String owner = UUID.randomUUID().toString();
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, owner, LOCK_TTL);
+        if (!Boolean.TRUE.equals(acquired)) {
+            return;
+        }
+        try {
+            collect(owner);
+        } catch (Exception e) {
+            log.error("Falha na reconciliação de media órfãos: {}", e.getMessage(), e);
+        } finally {
+            redisTemplate.execute(releaseLockScript, List.of(LOCK_KEY), owner);
+        }
+    }
+
+    public Report collect() {
+        return collect(null);
+    }
+
+    private Report collect(String lockOwner) {
+        Instant started = Instant.now();
+        Instant cutoff = started.minus(gracePeriod);
+        String urlPrefix = storageService.publicUrlFor("");
+        LockKeeper lock = new LockKeeper(lockOwner);
+        ReferencedKeys references = new ReferencedKeys(urlPrefix);
+
+        List<String> orphanKeys = new ArrayList<>(BATCH_SIZE);
+        long scanned = 0;
+        long orphans = 0;
+        long bytes = 0;
+
+        for (S3Object object : storageService.listAllObjects()) {
+            scanned++;
+            String key = object.key();
+
+            boolean referenced = references.contains(key);
+            if (!referenced && object.lastModified().isBefore(cutoff)) {
+                orphanKeys.add(key);
+                orphans++;
+                bytes += object.size() != null ? object.size() : 0;
+                if (orphanKeys.size() == BATCH_SIZE) {
+                    lock.extendIfDue();
+                    mediaDeletionService.scheduleKeyDeletion(orphanKeys);
+                    orphanKeys = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (scanned % BATCH_SIZE == 0) {
+                lock.extendIfDue();
+            }
+        }
+        mediaDeletionService.scheduleKeyDeletion(orphanKeys);
+
+        Report report = new Report(scanned, orphans, bytes, Duration.between(started, Instant.now()));
+        lastBytesReclaimed.set(bytes);
+        meterRegistry.counter("media.gc.orphans").increment(orphans);
+        meterRegistry.counter("media.gc.bytes-reclaimed").increment(bytes);
+        log.info("Reconciliação de media: {} objetos analisados, {} órfãos ({} MB) enviados para remoção em {} ms",
+                report.scanned(), report.orphans(), report.bytesReclaimed() / (1024 * 1024), report.elapsed().toMillis());
+        return report;
+    }
+
+    /**
+     * Chaves referenciadas, lidas aos lotes por ordem crescente à medida que o varrimento do bucket avança.
+     * Cada lote é uma consulta isolada: nenhuma transação nem cursor fica aberto durante a listagem do S3.
+     */
+    private final class ReferencedKeys {
+
+        private final String urlPrefix;
+        private Iterator<String> batch = List.<String>of().iterator();
+        private String lastKey = "";
+        private boolean exhausted;
+        private String current;
+
+        private ReferencedKeys(String urlPrefix) {
+            this.urlPrefix = urlPrefix;
+            advance();
+        }
+
+        // As chaves chegam por ordem crescente e são UUIDs/hashes ASCII, pelo que compareTo coincide com
+        // a ordem binária do S3 e do COLLATE "C".
+        boolean contains(String key) {
+            while (current != null && current.compareTo(key) < 0) {
+                advance();
+            }
+            return key.equals(current);
+        }
+
+        private void advance() {
+            if (!batch.hasNext() && !exhausted) {
+                List<String> next = mediaReferenceRepository.findReferencedKeysAfter(urlPrefix, lastKey, referenceBatchSize);
+                exhausted = next.size() < referenceBatchSize;
+                if (!next.isEmpty()) {
+                    lastKey = next.get(next.size() - 1);
+                }
+                batch = next.iterator();
+            }
+            current = batch.hasNext() ? batch.next() : null;
+        }
+    }
+
+    private final class LockKeeper {
+
+        private final String owner;
+        private long lastExtended = System.nanoTime();
+
+        private LockKeeper(String owner) {
+            this.owner = owner;
+        }
+
+        // Prolonga o TTL a cada terço do seu valor; se outro nó já tiver o lock, o varrimento pára.
+        void extendIfDue() {
+            if (owner == null || System.nanoTime() - lastExtended < LOCK_TTL.toNanos() / 3) {
+                return;
+            }
+            Long extended = redisTemplate.execute(extendLockScript, List.of(LOCK_KEY), owner,
+                    String.valueOf(LOCK_TTL.toMillis()));
+            if (extended == null || extended == 0) {
+                throw new IllegalStateException("Lock da reconciliação de media perdido; varrimento interrompido");
+            }
+            lastExtended = System.nanoTime();
+        }
+    }
+}
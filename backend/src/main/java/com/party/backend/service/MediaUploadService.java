@@ -0,0 +1,312 @@
+package com.party.backend.service;
+
+import com.party.backend.dto.listing.ImageUploadResultDTO;
+import com.party.backend.dto.media.MediaUploadCompleteRequestDTO;
+import com.party.backend.dto.media.MediaUploadRequestDTO;
+import com.party.backend.dto.media.MediaUploadRequestDTO.MediaKind;
+import com.party.backend.dto.media.MediaUploadResponseDTO;
+import com.party.backend.exception.ResourceNotFoundException;
+import com.party.backend.exception.UnauthorizedOperationException;
+import com.party.backend.model.ListingImage;
+import com.party.backend.model.User;
+import com.party.backend.repository.ListingImageBatchRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uploads diretos do browser para o MinIO: o backend só emite o URL assinado (com content-type e
+ * tamanho fixos) e, no fim, confirma o objeto com um HEAD antes de o associar ao listing.
+ * Os bytes nunca passam pela JVM.
+ */
+@Slf4j
+@Service
+public class MediaUploadService {
+
+    private static final String PENDING_KEY_PREFIX = "upload:pending:";
+    private static final String NO_LISTING = "";
+
+    private static final Map<String, String> IMAGE_EXTENSIONS = Map.of(
+            "image/jpeg", ".jpg",
+            "image/png", ".png",
+            "image/webp", ".webp"
+    );
+    private static final Map<String, String> VIDEO_EXTENSIONS = Map.of(
+            "video/mp4", ".mp4",
+            "video/webm", ".webm",
+            "video/quicktime", ".mov"
+    );
+
+    private final StorageService storageService;
+    private final MediaDeletionService mediaDeletionService;
+    private final ListingService listingService;
+    private final StringRedisTemplate redisTemplate;
+    private final long maxImageBytes;
+    private final long maxVideoBytes;
+    private final Duration urlTtl;
+    private final ListingImageBatchRepository listingImageBatchRepository;
+    private final ImageDerivativeService imageDerivativeService;
+    private final Semaphore uploadPermits;
+    private final TransactionTemplate transactionTemplate;
+
+    public MediaUploadService(
+            StorageService storageService,
+            MediaDeletionService mediaDeletionService,
+            ListingService listingService,
+            StringRedisTemplate redisTemplate,
+            @Value("${media.upload.max-image-size-mb:10}") long maxImageSizeMb,
+            @Value("${media.upload.max-video-size-mb:100}") long maxVideoSizeMb,
+            @Value("${media.upload.url-ttl-minutes:15}") long urlTtlMinutes,
+            ListingImageBatchRepository listingImageBatchRepository,
+            ImageDerivativeService imageDerivativeService,
+            @Value("${media.upload.batch-concurrency:4}") int batchConcurrency,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.storageService = storageService;
+        this.mediaDeletionService = mediaDeletionService;
+        this.listingService = listingService;
+        this.redisTemplate = redisTemplate;
+        this.maxImageBytes = maxImageSizeMb * 1024 * 1024;
+        this.maxVideoBytes = maxVideoSizeMb * 1024 * 1024;
+        this.urlTtl = Duration.ofMinutes(urlTtlMinutes);
+        this.listingImageBatchRepository = listingImageBatchRepository;
+        this.imageDerivativeService = imageDerivativeService;
+        this.uploadPermits = new Semaphore(batchConcurrency);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Upload que passa pelo backend mas sem multipart/form-data: o corpo do pedido é enviado para o S3
+     * à medida que é lido, sem ser guardado em disco.
+     */
+    public String uploadStream(Long listingId, MediaKind kind, String contentType, long declaredSize,
+                               InputStream in, User currentUser) {
+        listingService.checkListingOwnership(listingId, currentUser);
+
+        String normalizedType = contentType == null ? "" : contentType.toLowerCase();
+        String extension = (kind == MediaKind.IMAGE ? IMAGE_EXTENSIONS : VIDEO_EXTENSIONS).get(normalizedType);
+        if (extension == null) {
+            throw new IllegalArgumentException("Tipo de ficheiro não suportado: " + contentType);
+        }
+        long maxBytes = kind == MediaKind.IMAGE ? maxImageBytes : maxVideoBytes;
+        if (declaredSize > maxBytes) {
+            throw new IllegalArgumentException("O ficheiro excede o limite de " + maxBytes / (1024 * 1024) + "MB.");
+        }
+
+        String url = storageService.uploadStream(in, normalizedType, extension, maxBytes);
+        try {
+            return kind == MediaKind.IMAGE
+                    ? listingService.attachImageToListing(listingId, url, currentUser)
+                    : listingService.attachVideoToListing(listingId, url, currentUser);
+        } catch (RuntimeException e) {
+            mediaDeletionService.scheduleDeletion(List.of(url));
+            throw e;
+        }
+    }
+
+    /**
+     * Galeria num só pedido: valida o listing uma vez, envia os ficheiros em paralelo (virtual threads,
+     * limitadas por um semáforo global) e insere todas as linhas de listing_image num batch JDBC.
+     */
+    public List<ImageUploadResultDTO> uploadImages(Long listingId, List<MultipartFile> files, User currentUser) {
+        listingService.checkListingOwnership(listingId, currentUser);
+
+        List<ImageUploadResultDTO> results = new ArrayList<>(files.size());
+        List<Future<String>> uploads = new ArrayList<>(files.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (MultipartFile file : files) {
+                String error = validateImage(file);
+                results.add(error == null ? null : ImageUploadResultDTO.failed(file.getOriginalFilename(), error));
+                uploads.add(error == null ? executor.submit(() -> uploadWithPermit(file)) : null);
+            }
+        }
+
+        List<String> uploadedUrls = new ArrayList<>();
+        List<Integer> uploadedIndexes = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            Future<String> upload = uploads.get(i);
+            if (upload == null) {
+                continue;
+            }
+            try {
+                uploadedUrls.add(upload.get());
+                uploadedIndexes.add(i);
+            } catch (ExecutionException | InterruptedException e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                log.warn("Falha ao enviar {} para o listing {}: {}", files.get(i).getOriginalFilename(), listingId, cause.getMessage());
+                results.set(i, ImageUploadResultDTO.failed(files.get(i).getOriginalFilename(), "Falha ao fazer upload do ficheiro"));
+            }
+        }
+        if (uploadedUrls.isEmpty()) {
+            return results;
+        }
+
+        List<Long> ids;
+        try {
+            ids = transactionTemplate.execute(status -> {
+                mediaDeletionService.lockForAttach(uploadedUrls);
+                return listingImageBatchRepository.insertImages(listingId, uploadedUrls);
+            });
+        } catch (RuntimeException e) {
+            mediaDeletionService.scheduleDeletion(uploadedUrls);
+            throw e;
+        }
+
+        List<ListingImage> inserted = new ArrayList<>(ids.size());
+        for (int j = 0; j < uploadedIndexes.size(); j++) {
+            int index = uploadedIndexes.get(j);
+            results.set(index, ImageUploadResultDTO.uploaded(files.get(index).getOriginalFilename(), uploadedUrls.get(j)));
+            ListingImage image = new ListingImage();
+            image.setId(ids.get(j));
+            image.setImageUrl(uploadedUrls.get(j));
+            inserted.add(image);
+        }
+        imageDerivativeService.requestDerivatives(inserted);
+        return results;
+    }
+
+    private String validateImage(MultipartFile file) {
+        if (file.isEmpty()) {
+            return "O ficheiro não pode estar vazio.";
+        }
+        if (file.getSize() > maxImageBytes) {
+            return "O ficheiro excede o limite de " + maxImageBytes / (1024 * 1024) + "MB para fotos.";
+        }
+        if (file.getContentType() == null || !IMAGE_EXTENSIONS.containsKey(file.getContentType().toLowerCase())) {
+            return "Tipo de ficheiro não suportado: " + file.getContentType();
+        }
+        return null;
+    }
+
+    private String uploadWithPermit(MultipartFile file) throws InterruptedException {
+        uploadPermits.acquire();
+        try {
+            return storageService.uploadFile(file);
+        } finally {
+            uploadPermits.release();
+        }
+    }
+
+    public MediaUploadResponseDTO createUpload(Long listingId, MediaUploadRequestDTO request, User currentUser) {
+        if (listingId != null) {
+            listingService.checkListingOwnership(listingId, currentUser);
+        }
+
+        String contentType = request.getContentType().toLowerCase();
+        Map<String, String> allowed = request.getKind() == MediaKind.IMAGE ? IMAGE_EXTENSIONS : VIDEO_EXTENSIONS;
+        String extension = allowed.get(contentType);
+        if (extension == null) {
+            throw new IllegalArgumentException("Tipo de ficheiro não suportado: " + request.getContentType());
+        }
+        long maxBytes = request.getKind() == MediaKind.IMAGE ? maxImageBytes : maxVideoBytes;
+        if (request.getSize() > maxBytes) {
+            throw new IllegalArgumentException("O ficheiro excede o limite de " + maxBytes / (1024 * 1024) + "MB.");
+        }
+
+        String key = storageService.newObjectKey(extension);
+        PresignedPutObjectRequest presigned = storageService.presignUpload(key, contentType, request.getSize(), urlTtl);
+
+        String pendingKey = PENDING_KEY_PREFIX + key;
+        redisTemplate.opsForHash().putAll(pendingKey, Map.of(
+                "userId", String.valueOf(currentUser.getId()),
+                "listingId", listingId != null ? String.valueOf(listingId) : NO_LISTING,
+                "kind", request.getKind().name(),
+                "contentType", contentType,
+                "size", String.valueOf(request.getSize())
+        ));
+        // Margem para um upload que começa pouco antes de o URL expirar.
+        redisTemplate.expire(pendingKey, urlTtl.plusHours(1));
+
+        return MediaUploadResponseDTO.builder()
+                .key(key)
+                .uploadUrl(presigned.url().toString())
+                .method("PUT")
+                .headers(signedHeaders(presigned))
+                .expiresAt(presigned.expiration())
+                .publicUrl(storageService.publicUrlFor(key))
+                .build();
+    }
+
+    public String completeUpload(Long listingId, MediaUploadCompleteRequestDTO request, User currentUser) {
+        String key = request.getKey();
+        String pendingKey = PENDING_KEY_PREFIX + key;
+        Map<Object, Object> pending = redisTemplate.opsForHash().entries(pendingKey);
+        if (pending.isEmpty()) {
+            throw new ResourceNotFoundException("Upload não encontrado ou expirado: " + key);
+        }
+        String expectedListingId = listingId != null ? String.valueOf(listingId) : NO_LISTING;
+        if (!String.valueOf(currentUser.getId()).equals(pending.get("userId"))
+                || !expectedListingId.equals(pending.get("listingId"))) {
+            throw new UnauthorizedOperationException("Este upload não pertence ao utilizador ou ao listing indicado");
+        }
+
+        HeadObjectResponse head = storageService.headObject(key)
+                .orElseThrow(() -> new IllegalArgumentException("O ficheiro ainda não foi enviado para o armazenamento"));
+
+        long expectedSize = Long.parseLong((String) pending.get("size"));
+        String expectedContentType = (String) pending.get("contentType");
+        if (head.contentLength() == null || head.contentLength() != expectedSize
+                || !expectedContentType.equalsIgnoreCase(head.contentType())) {
+            log.warn("Upload {} rejeitado: esperado {} bytes/{}, recebido {} bytes/{}",
+                    key, expectedSize, expectedContentType, head.contentLength(), head.contentType());
+            redisTemplate.delete(pendingKey);
+            mediaDeletionService.scheduleDeletion(List.of(storageService.publicUrlFor(key)));
+            throw new IllegalArgumentException("O ficheiro enviado não corresponde ao upload autorizado");
+        }
+
+        // Só quem apaga a chave pendente associa o ficheiro: dois "complete" simultâneos não o duplicam.
+        Long ttlSeconds = redisTemplate.getExpire(pendingKey, TimeUnit.SECONDS);
+        if (!Boolean.TRUE.equals(redisTemplate.delete(pendingKey))) {
+            throw new ResourceNotFoundException("Upload não encontrado ou expirado: " + key);
+        }
+
+        String url = storageService.publicUrlFor(key);
+        if (listingId == null) {
+            return url;
+        }
+        try {
+            return MediaKind.valueOf((String) pending.get("kind")) == MediaKind.IMAGE
+                    ? listingService.attachImageToListing(listingId, url, currentUser)
+                    : listingService.attachVideoToListing(listingId, url, currentUser);
+        } catch (RuntimeException e) {
+            // Se a associação falhar o upload volta a ficar pendente, para que o cliente possa repetir o "complete".
+            redisTemplate.opsForHash().putAll(pendingKey, pending);
+            redisTemplate.expire(pendingKey, ttlSeconds != null && ttlSeconds > 0
+                    ? Duration.ofSeconds(ttlSeconds) : urlTtl.plusHours(1));
+            throw e;
+        }
+    }
+
+    // O browser tem de enviar exatamente os cabeçalhos assinados; Host é definido por ele e não pode ser enviado.
+    private static Map<String, String> signedHeaders(PresignedPutObjectRequest presigned) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        presigned.signedHeaders().forEach((name, values) -> {
+            if (!"host".equalsIgnoreCase(name)) {
+                headers.put(name, String.join(",", values));
+            }
+        });
+        return headers;
+    }
+}
@@ -0,0 +1,271 @@
+package com.party.backend.service;
+
+import com.party.backend.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envia um InputStream para o S3 em multipart upload: o stream é lido parte a parte para buffers de
+ * um pool limitado (partilhado por todos os uploads) e cada parte é enviada em paralelo, com retries.
+ * Se algo falhar o upload é abortado para o MinIO não guardar partes órfãs.
+ */
+@Slf4j
+@Service
+public class MultipartUploadService {
+
+    private static final int MIN_PART_SIZE_BYTES = 5 * 1024 * 1024;
+
+    private final S3Client s3Client;
+    private final MeterRegistry meterRegistry;
+    @Getter
+    private final int partSize;
+    private final int maxAttempts;
+    private final long bufferWaitMs;
+    private final Semaphore bufferPermits;
+    private final ConcurrentLinkedQueue<byte[]> freeBuffers = new ConcurrentLinkedQueue<>();
+    private final ExecutorService partExecutor;
+
+    public MultipartUploadService(
+            S3Client s3Client,
+            MeterRegistry meterRegistry,
+            @Value("${media.multipart.part-size-mb:8}") int partSizeMb,
+            @Value("${media.multipart.parallelism:4}") int parallelism,
+            @Value("${media.multipart.buffer-pool-size:8}") int bufferPoolSize,
+            @Value("${media.multipart.max-attempts:3}") int maxAttempts,
+            @Value("${media.multipart.buffer-wait-ms:30000}") long bufferWaitMs
+    ) {
+        this.s3Client = s3Client;
+        this.meterRegistry = meterRegistry;
+        this.partSize = Math.max(MIN_PART_SIZE_BYTES, partSizeMb * 1024 * 1024);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.bufferWaitMs = bufferWaitMs;
+        this.bufferPermits = new Semaphore(bufferPoolSize);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.partExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "s3-multipart-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return número de bytes enviados
+     */
+    public long upload(String bucket, String key, String contentType, InputStream in, long maxBytes) {
+        byte[] buffer = acquireBuffer();
+        int length;
+        try {
+            length = readPart(in, buffer);
+        } catch (RuntimeException e) {
+            releaseBuffer(buffer);
+            throw e;
+        }
+
+        if (length < partSize) {
+            try {
+                checkSize(length, maxBytes);
+                s3Client.putObject(PutObjectRequest.builder()
+                                .bucket(bucket)
+                                .key(key)
+                                .contentType(contentType)
+                                .build(),
+                        RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, length), length));
+                return length;
+            } finally {
+                releaseBuffer(buffer);
+            }
+        }
+
+        String uploadId;
+        try {
+            uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .contentType(contentType)
+                    .build()).uploadId();
+        } catch (RuntimeException e) {
+            releaseBuffer(buffer);
+            throw e;
+        }
+
+        AtomicBoolean aborted = new AtomicBoolean(false);
+        List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+        long total = 0;
+        byte[] held = buffer;
+        try {
+            int partNumber = 1;
+            while (length > 0) {
+                total += length;
+                checkSize(total, maxBytes);
+                parts.add(submitPart(bucket, key, uploadId, partNumber++, held, length, aborted));
+                held = null;
+                failFast(parts);
+                held = acquireBuffer();
+                length = readPart(in, held);
+            }
+            releaseBuffer(held);
+            held = null;
+
+            List<CompletedPart> completedParts = parts.stream().map(CompletableFuture::join).toList();
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                    .build());
+            return total;
+        } catch (RuntimeException e) {
+            if (held != null) {
+                releaseBuffer(held);
+            }
+            aborted.set(true);
+            // Espera que as partes em voo terminem, senão uma parte pode chegar depois do abort.
+            parts.forEach(part -> part.handle((result, error) -> null).join());
+            abort(bucket, key, uploadId);
+            throw unwrap(e);
+        }
+    }
+
+    private CompletableFuture<CompletedPart> submitPart(
+            String bucket, String key, String uploadId, int partNumber, byte[] buffer, int length, AtomicBoolean aborted
+    ) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                if (aborted.get()) {
+                    throw new IllegalStateException("Upload abortado");
+                }
+                return uploadPartWithRetries(bucket, key, uploadId, partNumber, buffer, length);
+            } finally {
+                releaseBuffer(buffer);
+            }
+        }, partExecutor);
+    }
+
+    private CompletedPart uploadPartWithRetries(
+            String bucket, String key, String uploadId, int partNumber, byte[] buffer, int length
+    ) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                String eTag = s3Client.uploadPart(UploadPartRequest.builder()
+                                .bucket(bucket)
+                                .key(key)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .contentLength((long) length)
+                                .build(),
+                        RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, length), length)).eTag();
+                sample.stop(meterRegistry.timer("media.multipart.part.duration"));
+                return CompletedPart.builder().partNumber(partNumber).eTag(eTag).build();
+            } catch (SdkException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                meterRegistry.counter("media.multipart.part.retries").increment();
+                log.warn("Falha ao enviar parte {} de {} (tentativa {}/{}): {}", partNumber, key, attempt, maxAttempts, e.getMessage());
+                try {
+                    Thread.sleep(200L * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void abort(String bucket, String key, String uploadId) {
+        meterRegistry.counter("media.multipart.aborted").increment();
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (SdkException e) {
+            log.error("Falha ao abortar multipart upload {} de {}: {}", uploadId, key, e.getMessage());
+        }
+    }
+
+    private int readPart(InputStream in, byte[] buffer) {
+        try {
+            return in.readNBytes(buffer, 0, partSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler o ficheiro enviado", e);
+        }
+    }
+
+    private void failFast(List<CompletableFuture<CompletedPart>> parts) {
+        for (CompletableFuture<CompletedPart> part : parts) {
+            if (part.isCompletedExceptionally()) {
+                part.join();
+            }
+        }
+    }
+
+    private void checkSize(long size, long maxBytes) {
+        if (size > maxBytes) {
+            throw new IllegalArgumentException("O ficheiro excede o limite de " + maxBytes / (1024 * 1024) + "MB.");
+        }
+    }
+
+    private byte[] acquireBuffer() {
+        try {
+            if (!bufferPermits.tryAcquire(bufferWaitMs, TimeUnit.MILLISECONDS)) {
+                throw new ServiceUnavailableException("Demasiados uploads em curso, tente novamente", 5);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Upload interrompido", 5);
+        }
+        byte[] buffer = freeBuffers.poll();
+        return buffer != null ? buffer : new byte[partSize];
+    }
+
+    private void releaseBuffer(byte[] buffer) {
+        freeBuffers.offer(buffer);
+        bufferPermits.release();
+    }
+
+    private RuntimeException unwrap(RuntimeException e) {
+        if (e instanceof CompletionException && e.getCause() instanceof RuntimeException cause) {
+            return cause;
+        }
+        return e;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        partExecutor.shutdown();
+    }
+}
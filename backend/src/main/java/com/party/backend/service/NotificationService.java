@@ -2,22 +2,163 @@ package com.party.backend.service;
 
 
 import com.party.backend.dto.NotificationDTO;
+import com.party.backend.model.Notification;
 import com.party.backend.model.User;
+import com.party.backend.repository.NotificationRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class NotificationService {
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationRepository notificationRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Map<CoalesceKey, PendingNotification> pending = new ConcurrentHashMap<>();
+
+    private record CoalesceKey(Long userId, String link) {
+    }
+
+    private record PendingNotification(Long userId, String username, String link, String message, String summary, int count) {
+
+        PendingNotification merge(PendingNotification newer) {
+            return new PendingNotification(userId, username, link, newer.message(), newer.summary(), count + newer.count());
+        }
+
+        // O texto agregado só é montado no flush, quando já se sabe quantas notificações foram juntas.
+        String text() {
+            return count > 1 ? summaryText(summary, count) : message;
+        }
+    }
+
+    private static String summaryText(String summary, int count) {
+        return (summary != null ? summary : NotificationDTO.DEFAULT_SUMMARY).replace(NotificationDTO.COUNT_PLACEHOLDER, String.valueOf(count));
+    }
 
     public void sendNotificationToUser(User user, NotificationDTO notification){
-        messagingTemplate.convertAndSendToUser(
-                user.getUsername(),
+        sendNotification(user.getId(), user.getUsername(), notification);
+    }
+
+    // Dentro de uma transação a notificação só entra no buffer depois do commit: uma reserva revertida
+    // não pode gerar notificação nem linha na inbox.
+    public void sendNotification(Long userId, String username, NotificationDTO notification){
+        String link = notification.getLink() != null ? notification.getLink() : "";
+        PendingNotification incoming = new PendingNotification(
+                userId, username, link, notification.getMessage(), notification.getSummary(), 1);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    buffer(incoming);
+                }
+            });
+        } else {
+            buffer(incoming);
+        }
+    }
+
+    private void buffer(PendingNotification incoming) {
+        pending.merge(new CoalesceKey(incoming.userId(), incoming.link()), incoming, PendingNotification::merge);
+    }
+
+    @Scheduled(fixedDelayString = "${notification.coalesce-window-ms:2000}")
+    public void flushPending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<PendingNotification> drained = new ArrayList<>();
+        for (CoalesceKey key : pending.keySet()) {
+            PendingNotification notification = pending.remove(key);
+            if (notification != null) {
+                drained.add(notification);
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> drained.forEach(notification ->
+                    notificationRepository.upsertUnread(
+                            notification.userId(),
+                            notification.text(),
+                            notification.summary() != null ? notification.summary() : NotificationDTO.DEFAULT_SUMMARY,
+                            notification.link(),
+                            notification.count()
+                    )));
+        } catch (Exception e) {
+            log.error("Falha ao gravar {} notificações na inbox", drained.size(), e);
+        }
+
+        Map<String, List<NotificationDTO>> byUsername = new LinkedHashMap<>();
+        for (PendingNotification notification : drained) {
+            NotificationDTO dto = new NotificationDTO(notification.text(), notification.link());
+            dto.setCount(notification.count());
+            byUsername.computeIfAbsent(notification.username(), k -> new ArrayList<>()).add(dto);
+        }
+        byUsername.forEach((username, notifications) -> messagingTemplate.convertAndSendToUser(
+                username,
                 "/topic/notification",
-                notification
+                notifications
+        ));
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushPending();
+    }
+
+    @Transactional(readOnly = true)
+    public List<NotificationDTO> getNotifications(User user, int page, int size) {
+        return notificationRepository.findByUserIdOrderByUpdatedAtDesc(user.getId(), PageRequest.of(page, size))
+                .stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public long getUnreadCount(User user) {
+        return notificationRepository.countByUserIdAndReadFalse(user.getId());
+    }
+
+    @Transactional
+    public void markAsRead(Long notificationId, User user) {
+        notificationRepository.markAsRead(notificationId, user.getId());
+    }
+
+    @Transactional
+    public void markAllAsRead(User user) {
+        notificationRepository.markAllAsRead(user.getId());
+    }
+
+    private NotificationDTO mapToDto(Notification notification) {
+        return new NotificationDTO(
+                notification.getId(),
+                notification.getMessage(),
+                notification.getLink(),
+                notification.getCount(),
+                notification.isRead(),
+                notification.getCreatedAt()
         );
     }
 }
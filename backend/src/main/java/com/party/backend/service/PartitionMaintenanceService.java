@@ -0,0 +1,126 @@
+package com.party.backend.service;
+
+import com.party.backend.repository.PartitionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Mantém as partições mensais de booking (por check_in_date) e chat_message (por timestamp): cria os
+ * meses seguintes com antecedência e separa para o schema de arquivo os meses fora da retenção. Cada
+ * partição é tratada na sua própria transação, para que o lock exclusivo na tabela-mãe dure pouco.
+ * As partições arquivadas ficam sem FKs; num mês de booking, as mensagens dessas reservas vão para o
+ * arquivo com ele e os marcadores de leitura são apagados (ver V17).
+ */
+@Slf4j
+@Service
+public class PartitionMaintenanceService {
+
+    private static final String LOCK_KEY = "partitions:maintenance:lock";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'_p'yyyy_MM");
+
+    private record ManagedTable(String name, String keyColumn, int premakeMonths, int retentionMonths) {
+    }
+
+    private final PartitionRepository partitionRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final String archiveSchema;
+    private final long lockTimeoutMs;
+    private final List<ManagedTable> tables;
+
+    public PartitionMaintenanceService(
+            PartitionRepository partitionRepository,
+            StringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry,
+            PlatformTransactionManager transactionManager,
+            @Value("${partitions.enabled:true}") boolean enabled,
+            @Value("${partitions.archive-schema:archive}") String archiveSchema,
+            @Value("${partitions.lock-timeout-ms:5000}") long lockTimeoutMs,
+            @Value("${partitions.booking.premake-months:24}") int bookingPremakeMonths,
+            @Value("${partitions.booking.retention-months:36}") int bookingRetentionMonths,
+            @Value("${partitions.chat-message.premake-months:3}") int chatPremakeMonths,
+            @Value("${partitions.chat-message.retention-months:24}") int chatRetentionMonths
+    ) {
+        this.partitionRepository = partitionRepository;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.archiveSchema = archiveSchema;
+        this.lockTimeoutMs = lockTimeoutMs;
+        this.tables = List.of(
+                new ManagedTable("booking", "check_in_date", bookingPremakeMonths, bookingRetentionMonths),
+                new ManagedTable("chat_message", "timestamp", chatPremakeMonths, chatRetentionMonths)
+        );
+    }
+
+    @Scheduled(cron = "${partitions.cron:0 15 2 * * *}")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        // Só um nó mexe nas partições de cada vez.
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, "1", Duration.ofMinutes(30));
+        if (!Boolean.TRUE.equals(acquired)) {
+            return;
+        }
+        try {
+            YearMonth current = YearMonth.now();
+            for (ManagedTable table : tables) {
+                try {
+                    maintain(table, current);
+                } catch (Exception e) {
+                    meterRegistry.counter("partitions.maintenance.failures", "table", table.name()).increment();
+                    log.error("Falha na manutenção das partições de {}: {}", table.name(), e.getMessage(), e);
+                }
+            }
+        } finally {
+            redisTemplate.delete(LOCK_KEY);
+        }
+    }
+
+    private void maintain(ManagedTable table, YearMonth current) {
+        for (int i = 0; i <= table.premakeMonths(); i++) {
+            LocalDate month = current.plusMonths(i).atDay(1);
+            Boolean created = transactionTemplate.execute(status -> {
+                partitionRepository.setLockTimeout(lockTimeoutMs);
+                return partitionRepository.ensureMonthlyPartition(table.name(), table.keyColumn(), month);
+            });
+            if (Boolean.TRUE.equals(created)) {
+                meterRegistry.counter("partitions.created", "table", table.name()).increment();
+                log.info("Partição {}{} criada", table.name(), PARTITION_SUFFIX.format(month));
+            }
+        }
+
+        if (table.retentionMonths() <= 0) {
+            return;
+        }
+        YearMonth oldestKept = current.minusMonths(table.retentionMonths());
+        for (String partition : partitionRepository.findMonthlyPartitions(table.name())) {
+            YearMonth month = YearMonth.parse(partition.substring(partition.length() - 7).replace('_', '-'));
+            if (!month.isBefore(oldestKept)) {
+                continue;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                partitionRepository.setLockTimeout(lockTimeoutMs);
+                partitionRepository.archivePartition(table.name(), partition, archiveSchema);
+            });
+            meterRegistry.counter("partitions.archived", "table", table.name()).increment();
+            log.info("Partição {} separada de {} e movida para o schema {}", partition, table.name(), archiveSchema);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.party.backend.service;
+
+import com.party.backend.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Executa o BCrypt (registo e login) num pool próprio e limitado, para que um pico de logins não
+ * ocupe as threads do Tomcat que servem o resto da API. Com o pool e a fila cheios o pedido é
+ * recusado de imediato com 503 em vez de ficar à espera.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final long waitTimeoutMs;
+
+    public PasswordHashingService(
+            PasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry,
+            @Value("${auth.hashing.pool-size:0}") int poolSize,
+            @Value("${auth.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${auth.hashing.wait-timeout-ms:5000}") long waitTimeoutMs
+    ) {
+        this.passwordEncoder = passwordEncoder;
+        this.meterRegistry = meterRegistry;
+        this.waitTimeoutMs = waitTimeoutMs;
+
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        meterRegistry.gauge("auth.hashing.queue.size", executor, pool -> pool.getQueue().size());
+        meterRegistry.gauge("auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount);
+    }
+
+    public String encode(String rawPassword) {
+        return execute("encode", () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public <T> T execute(String operation, Supplier<T> task) {
+        Timer.Sample queued = Timer.start(meterRegistry);
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queued.stop(meterRegistry.timer("auth.hashing.queue.wait", "operation", operation));
+                Timer.Sample hashing = Timer.start(meterRegistry);
+                try {
+                    return task.get();
+                } finally {
+                    hashing.stop(meterRegistry.timer("auth.hashing.duration", "operation", operation));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            meterRegistry.counter("auth.hashing.rejected", "operation", operation).increment();
+            throw new ServiceUnavailableException("Serviço de autenticação sobrecarregado, tente novamente", 1);
+        }
+
+        try {
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            meterRegistry.counter("auth.hashing.timeouts", "operation", operation).increment();
+            throw new ServiceUnavailableException("Serviço de autenticação sobrecarregado, tente novamente", 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new ServiceUnavailableException("Pedido de autenticação interrompido", 1);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
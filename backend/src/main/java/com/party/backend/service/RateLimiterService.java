@@ -0,0 +1,124 @@
+package com.party.backend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.scripting.support.ResourceScriptSource;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Token buckets por (classe de rota, utilizador/IP) guardados no Redis e atualizados por um script Lua.
+ * Cada nó pede ao Redis um pequeno lote de tokens ("lease") e serve os pedidos seguintes localmente,
+ * pelo que o tráfego claramente abaixo do limite não faz round trip ao Redis.
+ * LOGIN_ACCOUNT é aplicado pelo AuthenticationService à conta (email) e não ao IP: trava tentativas distribuídas
+ * por vários IPs contra a mesma conta.
+ */
+@Slf4j
+@Service
+public class RateLimiterService {
+
+    private static final String KEY_PREFIX = "ratelimit:";
+
+    public enum RouteClass {
+        AUTH, LOGIN_ACCOUNT, SEARCH, DEFAULT
+    }
+
+    public record Decision(boolean allowed, long retryAfterSeconds) {
+    }
+
+    private record BucketConfig(long capacity, double refillPerMs, int leaseSize) {
+    }
+
+    private record Lease(AtomicInteger tokens, long expiresAt) {
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final DefaultRedisScript<List> tokenBucketScript;
+    private final Map<RouteClass, BucketConfig> configs = new EnumMap<>(RouteClass.class);
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private final long leaseTtlMs;
+
+    public RateLimiterService(
+            StringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${rate-limit.local-lease-ms:1000}") long leaseTtlMs,
+            @Value("${rate-limit.auth.capacity:10}") long authCapacity,
+            @Value("${rate-limit.auth.refill-per-minute:10}") double authRefillPerMinute,
+            @Value("${rate-limit.login-account.capacity:5}") long loginAccountCapacity,
+            @Value("${rate-limit.login-account.refill-per-minute:5}") double loginAccountRefillPerMinute,
+            @Value("${rate-limit.search.capacity:30}") long searchCapacity,
+            @Value("${rate-limit.search.refill-per-minute:120}") double searchRefillPerMinute,
+            @Value("${rate-limit.default.capacity:200}") long defaultCapacity,
+            @Value("${rate-limit.default.refill-per-minute:600}") double defaultRefillPerMinute
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.leaseTtlMs = leaseTtlMs;
+        this.tokenBucketScript = new DefaultRedisScript<>();
+        this.tokenBucketScript.setScriptSource(new ResourceScriptSource(new ClassPathResource("redis/token_bucket.lua")));
+        this.tokenBucketScript.setResultType(List.class);
+        configs.put(RouteClass.AUTH, bucketConfig(authCapacity, authRefillPerMinute));
+        configs.put(RouteClass.LOGIN_ACCOUNT, bucketConfig(loginAccountCapacity, loginAccountRefillPerMinute));
+        configs.put(RouteClass.SEARCH, bucketConfig(searchCapacity, searchRefillPerMinute));
+        configs.put(RouteClass.DEFAULT, bucketConfig(defaultCapacity, defaultRefillPerMinute));
+    }
+
+    private static BucketConfig bucketConfig(long capacity, double refillPerMinute) {
+        return new BucketConfig(capacity, refillPerMinute / 60_000.0, (int) Math.max(1, capacity / 20));
+    }
+
+    public Decision tryConsume(RouteClass routeClass, String identity) {
+        String key = KEY_PREFIX + routeClass.name().toLowerCase() + ":" + identity;
+        long now = System.currentTimeMillis();
+
+        Lease lease = leases.get(key);
+        if (lease != null && lease.expiresAt() > now && lease.tokens().getAndDecrement() > 0) {
+            return new Decision(true, 0);
+        }
+
+        BucketConfig config = configs.get(routeClass);
+        try {
+            List<?> result = redisTemplate.execute(
+                    tokenBucketScript,
+                    List.of(key),
+                    String.valueOf(config.capacity()),
+                    String.valueOf(config.refillPerMs()),
+                    String.valueOf(config.leaseSize())
+            );
+            meterRegistry.counter("rate_limit.redis.calls", "route", routeClass.name()).increment();
+            long granted = ((Number) result.get(0)).longValue();
+            if (granted >= 1) {
+                if (granted > 1) {
+                    leases.put(key, new Lease(new AtomicInteger((int) granted - 1), now + leaseTtlMs));
+                } else {
+                    leases.remove(key);
+                }
+                return new Decision(true, 0);
+            }
+            long retryAfterMs = ((Number) result.get(1)).longValue();
+            meterRegistry.counter("rate_limit.rejected", "route", routeClass.name()).increment();
+            return new Decision(false, Math.max(1, (retryAfterMs + 999) / 1000));
+        } catch (Exception e) {
+            log.warn("Rate limiter indisponível ({}), a deixar passar o pedido", e.getMessage());
+            meterRegistry.counter("rate_limit.errors", "route", routeClass.name()).increment();
+            return new Decision(true, 0);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.local-lease-ms:1000}")
+    public void evictExpiredLeases() {
+        long now = System.currentTimeMillis();
+        leases.values().removeIf(lease -> lease.expiresAt() <= now);
+    }
+}
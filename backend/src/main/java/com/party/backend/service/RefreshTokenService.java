@@ -0,0 +1,64 @@
+package com.party.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+@Service
+public class RefreshTokenService {
+
+    private static final String KEY_PREFIX = "auth:refresh:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration refreshTokenTtl;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenService(
+            StringRedisTemplate redisTemplate,
+            @Value("${jwt.refresh-token-ttl-days:14}") long refreshTokenTtlDays
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.refreshTokenTtl = Duration.ofDays(refreshTokenTtlDays);
+    }
+
+    public String issue(Long userId) {
+        byte[] randomBytes = new byte[32];
+        secureRandom.nextBytes(randomBytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
+        redisTemplate.opsForValue().set(key(refreshToken), String.valueOf(userId), refreshTokenTtl);
+        return refreshToken;
+    }
+
+    // GETDEL garante que cada refresh token só é trocado uma vez (rotação).
+    public Optional<Long> consume(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return Optional.empty();
+        }
+        String userId = redisTemplate.opsForValue().getAndDelete(key(refreshToken));
+        return Optional.ofNullable(userId).map(Long::valueOf);
+    }
+
+    public void revoke(String refreshToken) {
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            redisTemplate.delete(key(refreshToken));
+        }
+    }
+
+    private String key(String refreshToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(refreshToken.getBytes(StandardCharsets.UTF_8));
+            return KEY_PREFIX + HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
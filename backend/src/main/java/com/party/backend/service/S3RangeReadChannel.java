@@ -0,0 +1,114 @@
+package com.party.backend.service;
+
+import org.jcodec.common.io.SeekableByteChannel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.NonWritableChannelException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Canal só de leitura sobre um objeto do S3 que vai buscando blocos com GETs parciais (Range).
+ * O demuxer MP4 salta entre o "moov" (muitas vezes no fim do ficheiro) e alguns samples, por isso
+ * só uma pequena fração do vídeo chega a ser descarregada. Os últimos blocos lidos ficam em cache.
+ */
+final class S3RangeReadChannel implements SeekableByteChannel {
+
+    private static final int BLOCK_SIZE = 512 * 1024;
+    private static final int CACHED_BLOCKS = 8;
+
+    private final StorageService storageService;
+    private final String key;
+    private final long size;
+    private final Map<Long, byte[]> blocks = new LinkedHashMap<>(CACHED_BLOCKS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+            return size() > CACHED_BLOCKS;
+        }
+    };
+
+    private long position;
+    private long bytesFetched;
+    private boolean open = true;
+
+    S3RangeReadChannel(StorageService storageService, String key, long size) {
+        this.storageService = storageService;
+        this.key = key;
+        this.size = size;
+    }
+
+    long getBytesFetched() {
+        return bytesFetched;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        if (position >= size) {
+            return -1;
+        }
+        int total = 0;
+        while (dst.hasRemaining() && position < size) {
+            long blockIndex = position / BLOCK_SIZE;
+            byte[] block = block(blockIndex);
+            int offset = (int) (position - blockIndex * BLOCK_SIZE);
+            int length = Math.min(dst.remaining(), block.length - offset);
+            if (length <= 0) {
+                break;
+            }
+            dst.put(block, offset, length);
+            position += length;
+            total += length;
+        }
+        return total == 0 ? -1 : total;
+    }
+
+    private byte[] block(long blockIndex) {
+        byte[] block = blocks.get(blockIndex);
+        if (block == null) {
+            long start = blockIndex * BLOCK_SIZE;
+            long end = Math.min(size, start + BLOCK_SIZE) - 1;
+            block = storageService.readRange(key, start, end);
+            bytesFetched += block.length;
+            blocks.put(blockIndex, block);
+        }
+        return block;
+    }
+
+    @Override
+    public long position() {
+        return position;
+    }
+
+    @Override
+    public SeekableByteChannel setPosition(long newPosition) {
+        this.position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long newSize) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+        blocks.clear();
+    }
+}
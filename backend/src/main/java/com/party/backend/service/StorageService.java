@@ -1,37 +1,97 @@
 package com.party.backend.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.Delete;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.MetadataDirective;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
 import java.net.URL;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class StorageService {
 
     private final S3Client s3Client;
+    private final S3Presigner s3Presigner;
+    private final MultipartUploadService multipartUploadService;
+    private final MeterRegistry meterRegistry;
     private final String BUCKET_NAME = "party-listings";
+    private static final String CONTENT_PREFIX = "sha256-";
+    private static final String TEMP_PREFIX = "tmp/";
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
 
     @Value("${aws.s3.public-url}")
     private String publicUrl;
 
     public String uploadFile(MultipartFile file) {
         try {
-            String extension = file.getOriginalFilename().substring(file.getOriginalFilename().lastIndexOf("."));
-            String fileName = UUID.randomUUID() + extension;
+            String extension = file.getOriginalFilename().substring(file.getOriginalFilename().lastIndexOf(".")).toLowerCase();
+
+            // O MultipartFile já está em disco/memória: calcula-se o hash antes de enviar e, se o conteúdo
+            // já existir no bucket, o upload é evitado por completo.
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            String fileName = contentKey(digest, extension);
+            if (headObject(fileName).isPresent()) {
+                meterRegistry.counter("media.dedup.hits").increment();
+                meterRegistry.counter("media.dedup.bytes-saved").increment(file.getSize());
+                return publicUrlFor(fileName);
+            }
+
+            if (file.getSize() > multipartUploadService.getPartSize()) {
+                try (InputStream in = file.getInputStream()) {
+                    multipartUploadService.upload(BUCKET_NAME, fileName, file.getContentType(), in, file.getSize());
+                }
+                return publicUrlFor(fileName);
+            }
 
             PutObjectRequest putObjectRequest = PutObjectRequest.builder()
                     .bucket(BUCKET_NAME)
                     .key(fileName)
                     .contentType(file.getContentType())
+                    .cacheControl(IMMUTABLE_CACHE_CONTROL)
                     .build();
 
             s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
@@ -42,16 +102,158 @@ public class StorageService {
         }
     }
 
+    /**
+     * O corpo do pedido só pode ser lido uma vez: é enviado para uma chave temporária enquanto se calcula
+     * o hash e depois copiado no servidor para a chave definitiva (ou descartado, se esta já existir).
+     */
+    public String uploadStream(InputStream in, String contentType, String extension, long maxBytes) {
+        MessageDigest digest = sha256();
+        String tempKey = TEMP_PREFIX + newObjectKey(extension);
+        multipartUploadService.upload(BUCKET_NAME, tempKey, contentType, new DigestInputStream(in, digest), maxBytes);
+
+        String key = contentKey(digest, extension);
+        try {
+            if (headObject(key).isPresent()) {
+                meterRegistry.counter("media.dedup.hits").increment();
+            } else {
+                s3Client.copyObject(CopyObjectRequest.builder()
+                        .sourceBucket(BUCKET_NAME)
+                        .sourceKey(tempKey)
+                        .destinationBucket(BUCKET_NAME)
+                        .destinationKey(key)
+                        .metadataDirective(MetadataDirective.REPLACE)
+                        .contentType(contentType)
+                        .cacheControl(IMMUTABLE_CACHE_CONTROL)
+                        .build());
+            }
+        } finally {
+            deleteFile(publicUrlFor(tempKey));
+        }
+        return publicUrlFor(key);
+    }
+
+    // Chaves derivadas do conteúdo podem ser reaproveitadas por qualquer upload com os mesmos bytes.
+    public boolean isContentAddressed(String key) {
+        return key.startsWith(CONTENT_PREFIX);
+    }
+
+    public String newObjectKey(String extension) {
+        return UUID.randomUUID() + extension;
+    }
+
+    private String contentKey(MessageDigest digest, String extension) {
+        return CONTENT_PREFIX + HexFormat.of().formatHex(digest.digest()) + extension;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public String publicUrlFor(String key) {
+        return publicUrl + "/" + BUCKET_NAME + "/" + key;
+    }
+
+    public PresignedPutObjectRequest presignUpload(String key, String contentType, long contentLength, Duration ttl) {
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(BUCKET_NAME)
+                .key(key)
+                .contentType(contentType)
+                .contentLength(contentLength)
+                .build();
+
+        return s3Presigner.presignPutObject(PutObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .putObjectRequest(putObjectRequest)
+                .build());
+    }
+
+    public String keyFromUrl(String fileUrl) {
+        try {
+            return new URL(fileUrl).getPath().substring(("/" + BUCKET_NAME + "/").length());
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("URL de ficheiro inválido: " + fileUrl, e);
+        }
+    }
+
+    public ResponseInputStream<GetObjectResponse> openObject(String key) {
+        return s3Client.getObject(GetObjectRequest.builder()
+                .bucket(BUCKET_NAME)
+                .key(key)
+                .build());
+    }
+
+    public Iterable<S3Object> listAllObjects() {
+        return s3Client.listObjectsV2Paginator(ListObjectsV2Request.builder()
+                .bucket(BUCKET_NAME)
+                .maxKeys(1000)
+                .build()).contents();
+    }
+
+    public byte[] readRange(String key, long start, long endInclusive) {
+        return s3Client.getObjectAsBytes(GetObjectRequest.builder()
+                .bucket(BUCKET_NAME)
+                .key(key)
+                .range("bytes=" + start + "-" + endInclusive)
+                .build()).asByteArray();
+    }
+
+    public String putObject(String key, byte[] content, String contentType) {
+        s3Client.putObject(PutObjectRequest.builder()
+                        .bucket(BUCKET_NAME)
+                        .key(key)
+                        .contentType(contentType)
+                        .cacheControl(IMMUTABLE_CACHE_CONTROL)
+                        .build(),
+                RequestBody.fromBytes(content));
+        return publicUrlFor(key);
+    }
+
+    public Optional<HeadObjectResponse> headObject(String key) {
+        try {
+            return Optional.of(s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(BUCKET_NAME)
+                    .key(key)
+                    .build()));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
     public void deleteFile(String fileUrl) {
         try {
-            String key = new URL(fileUrl).getPath().substring(("/" + BUCKET_NAME + "/").length());
+            String key = keyFromUrl(fileUrl);
             DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
                     .bucket(BUCKET_NAME)
                     .key(key)
                     .build();
             s3Client.deleteObject(deleteObjectRequest);
         } catch (Exception e) {
-            System.err.println("Falha ao apagar o ficheiro do S3: " + fileUrl + " - Erro: " + e.getMessage());
+            log.error("Falha ao apagar o ficheiro do S3: {} - Erro: {}", fileUrl, e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Apaga até 1000 objetos numa só chamada. Devolve as chaves que o S3 não conseguiu apagar, com o motivo.
+     */
+    public Map<String, String> deleteObjects(Collection<String> keys) {
+        List<ObjectIdentifier> objects = keys.stream()
+                .map(key -> ObjectIdentifier.builder().key(key).build())
+                .toList();
+        DeleteObjectsResponse response = s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                .bucket(BUCKET_NAME)
+                .delete(Delete.builder().objects(objects).quiet(true).build())
+                .build());
+        Map<String, String> errors = new HashMap<>();
+        response.errors().forEach(error -> errors.put(error.key(), error.code() + ": " + error.message()));
+        return errors;
+    }
+}
@@ -0,0 +1,167 @@
+package com.party.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lista de revogação de access tokens (por jti) guardada no Redis e espelhada em cada nó num Bloom filter.
+ * O caso comum (token não revogado) responde-se em memória; só um "talvez" do filtro vai ao Redis.
+ * Os nós recebem revogações novas por pub/sub e reconstroem o filtro periodicamente para largar jtis expirados.
+ */
+@Slf4j
+@Service
+public class TokenRevocationService {
+
+    public static final String REVOCATION_CHANNEL = "auth:revocations";
+    private static final String REVOKED_KEY_PREFIX = "auth:revoked:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter rebuilding;
+
+    public TokenRevocationService(
+            StringRedisTemplate redisTemplate,
+            @Value("${auth.revocation.bloom.expected-insertions:100000}") int expectedRevocations,
+            @Value("${auth.revocation.bloom.false-positive-rate:0.01}") double falsePositiveRate
+    ) {
+        this.redisTemplate = redisTemplate;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.current = new BloomFilter(expectedRevocations, falsePositiveRate);
+    }
+
+    @PostConstruct
+    public void loadRevocations() {
+        rebuildFilter();
+    }
+
+    public void revoke(String jti, Date expiresAt) {
+        if (jti == null || expiresAt == null) {
+            return;
+        }
+        Duration remaining = Duration.ofMillis(expiresAt.getTime() - System.currentTimeMillis());
+        if (remaining.isNegative() || remaining.isZero()) {
+            return;
+        }
+        redisTemplate.opsForValue().set(REVOKED_KEY_PREFIX + jti, "1", remaining);
+        addToFilters(jti);
+        redisTemplate.convertAndSend(REVOCATION_CHANNEL, jti);
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !current.mightContain(jti)) {
+            return false;
+        }
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(REVOKED_KEY_PREFIX + jti));
+        } catch (Exception e) {
+            log.warn("Redis indisponível ao confirmar revogação do token {}, a recusar por precaução", jti);
+            return true;
+        }
+    }
+
+    public void onRevocationMessage(String jti) {
+        addToFilters(jti);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revocation.bloom.rebuild-interval-ms:600000}")
+    public void rebuildFilter() {
+        BloomFilter next = new BloomFilter(expectedRevocations, falsePositiveRate);
+        rebuilding = next;
+        try (Cursor<String> keys = redisTemplate.scan(ScanOptions.scanOptions()
+                .match(REVOKED_KEY_PREFIX + "*")
+                .count(1000)
+                .build())) {
+            int loaded = 0;
+            while (keys.hasNext()) {
+                next.put(keys.next().substring(REVOKED_KEY_PREFIX.length()));
+                loaded++;
+            }
+            current = next;
+            log.debug("Bloom filter de revogações reconstruído com {} tokens", loaded);
+        } catch (Exception e) {
+            log.warn("Falha ao reconstruir Bloom filter de revogações: {}", e.getMessage());
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    private void addToFilters(String jti) {
+        current.put(jti);
+        BloomFilter next = rebuilding;
+        if (next != null) {
+            next.put(jti);
+        }
+    }
+
+    private static final class BloomFilter {
+
+        private final AtomicLongArray words;
+        private final long numBits;
+        private final int numHashes;
+
+        BloomFilter(int expectedInsertions, double falsePositiveRate) {
+            long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.numBits = Math.max(64, bits);
+            this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+            this.words = new AtomicLongArray((int) ((numBits + 63) / 64));
+        }
+
+        void put(String value) {
+            long hash = hash64(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= numHashes; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, numBits);
+                int index = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long word;
+                do {
+                    word = words.get(index);
+                } while ((word & mask) == 0 && !words.compareAndSet(index, word, word | mask));
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash = hash64(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= numHashes; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, numBits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // FNV-1a seguido do finalizador do MurmurHash3 para espalhar os bits.
+        private static long hash64(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b;
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.party.backend.service;
+
+import com.party.backend.config.RabbitConfig;
+import com.party.backend.dto.media.VideoThumbnailMessage;
+import com.party.backend.model.ListingVideo;
+import com.party.backend.repository.ListingVideoRepository;
+import com.party.backend.service.ImageDerivativeService.EncodedImage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.jcodec.api.FrameGrab;
+import org.jcodec.api.JCodecException;
+import org.jcodec.common.model.Picture;
+import org.jcodec.scale.AWTUtil;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Extrai o poster dos vídeos dos listings: o vídeo é lido do MinIO por range reads (só o índice e os
+ * samples à volta do frame escolhido), o frame é descodificado com JCodec (Java puro, H.264 em MP4/MOV)
+ * e o poster é codificado como as outras variantes de imagem.
+ */
+@Slf4j
+@Service
+public class VideoThumbnailService {
+
+    private static final int POSTER_WIDTH = 800;
+
+    private final RabbitTemplate rabbitTemplate;
+    private final StorageService storageService;
+    private final MediaDeletionService mediaDeletionService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final ListingVideoRepository listingVideoRepository;
+    private final MeterRegistry meterRegistry;
+    private final double posterSecond;
+
+    public VideoThumbnailService(
+            RabbitTemplate rabbitTemplate,
+            StorageService storageService,
+            MediaDeletionService mediaDeletionService,
+            ImageDerivativeService imageDerivativeService,
+            ListingVideoRepository listingVideoRepository,
+            MeterRegistry meterRegistry,
+            @Value("${media.video-thumbnails.poster-second:1.0}") double posterSecond
+    ) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.storageService = storageService;
+        this.mediaDeletionService = mediaDeletionService;
+        this.imageDerivativeService = imageDerivativeService;
+        this.listingVideoRepository = listingVideoRepository;
+        this.meterRegistry = meterRegistry;
+        this.posterSecond = posterSecond;
+    }
+
+    public void requestThumbnails(Collection<ListingVideo> videos) {
+        List<VideoThumbnailMessage> messages = videos.stream()
+                .filter(video -> video.getId() != null && video.getThumbnailUrl() == null)
+                .map(video -> new VideoThumbnailMessage(video.getId(), video.getVideoUrl()))
+                .toList();
+        if (messages.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(messages);
+                }
+            });
+        } else {
+            publish(messages);
+        }
+    }
+
+    private void publish(List<VideoThumbnailMessage> messages) {
+        for (VideoThumbnailMessage message : messages) {
+            try {
+                rabbitTemplate.convertAndSend(RabbitConfig.VIDEO_THUMBNAILS_QUEUE, message);
+            } catch (Exception e) {
+                log.warn("Falha ao agendar thumbnail do vídeo {}: {}", message.videoId(), e.getMessage());
+            }
+        }
+    }
+
+    @RabbitListener(queues = RabbitConfig.VIDEO_THUMBNAILS_QUEUE, concurrency = "${media.video-thumbnails.concurrency:1}")
+    public void generateThumbnail(VideoThumbnailMessage message) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String videoKey = storageService.keyFromUrl(message.videoUrl());
+        Optional<HeadObjectResponse> head = storageService.headObject(videoKey);
+        if (head.isEmpty()) {
+            log.warn("Vídeo {} já não existe, thumbnail ignorado", videoKey);
+            return;
+        }
+
+        String baseKey = videoKey.contains(".") ? videoKey.substring(0, videoKey.lastIndexOf('.')) : videoKey;
+        String existingPosterKey = baseKey + "_poster" + imageDerivativeService.encodedExtension();
+        if (storageService.headObject(existingPosterKey).isPresent()) {
+            listingVideoRepository.updateThumbnailUrl(message.videoId(), message.videoUrl(),
+                    storageService.publicUrlFor(existingPosterKey));
+            return;
+        }
+
+        BufferedImage frame;
+        try (S3RangeReadChannel channel = new S3RangeReadChannel(storageService, videoKey, head.get().contentLength())) {
+            frame = grabFrame(channel);
+            log.debug("Frame do vídeo {} extraído com {} de {} bytes lidos", videoKey, channel.getBytesFetched(), channel.size());
+        } catch (SdkException e) {
+            throw e;
+        } catch (IOException | JCodecException | RuntimeException e) {
+            // Formato/codec não suportado pelo JCodec (p.ex. VP8/VP9 em WebM): não adianta repetir.
+            meterRegistry.counter("media.video-thumbnails.unsupported").increment();
+            log.warn("Não foi possível extrair um frame do vídeo {}: {}", videoKey, e.getMessage());
+            return;
+        }
+
+        EncodedImage poster = imageDerivativeService.encodeResized(frame, POSTER_WIDTH);
+        String posterUrl = storageService.putObject(baseKey + "_poster" + poster.extension(), poster.content(), poster.contentType());
+
+        if (listingVideoRepository.updateThumbnailUrl(message.videoId(), message.videoUrl(), posterUrl) == 0) {
+            mediaDeletionService.scheduleDeletion(List.of(posterUrl));
+        }
+        sample.stop(meterRegistry.timer("media.video-thumbnails.duration"));
+    }
+
+    private BufferedImage grabFrame(S3RangeReadChannel channel) throws IOException, JCodecException {
+        FrameGrab grab = FrameGrab.createFrameGrab(channel);
+        double duration = grab.getVideoTrack().getMeta().getTotalDuration();
+        // Evita o primeiro frame (muitas vezes preto) sem sair dos vídeos muito curtos.
+        double second = duration > 0 ? Math.min(posterSecond, duration / 2) : 0;
+        if (second > 0) {
+            grab.seekToSecondPrecise(second);
+        }
+        Picture picture = grab.getNativeFrame();
+        if (picture == null) {
+            throw new IOException("Vídeo sem frames descodificáveis");
+        }
+        return AWTUtil.toBufferedImage(picture);
+    }
+}
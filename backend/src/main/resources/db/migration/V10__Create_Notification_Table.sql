@@ -0,0 +1,13 @@
+CREATE TABLE notification (
+                              id BIGSERIAL PRIMARY KEY,
+                              user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+                              message TEXT NOT NULL,
+                              link TEXT NOT NULL DEFAULT '',
+                              count INT NOT NULL DEFAULT 1,
+                              is_read BOOLEAN NOT NULL DEFAULT false,
+                              created_at TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+                              updated_at TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_notification_user_id_updated_at ON notification(user_id, updated_at DESC);
+CREATE UNIQUE INDEX uq_notification_unread_user_link ON notification(user_id, link) WHERE is_read = false;
@@ -0,0 +1,4 @@
+ALTER TABLE listing_image
+    ADD COLUMN thumbnail_url TEXT,
+    ADD COLUMN medium_url TEXT,
+    ADD COLUMN large_url TEXT;
@@ -0,0 +1,10 @@
+CREATE TABLE pending_deletion (
+    id BIGSERIAL PRIMARY KEY,
+    object_key TEXT NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT now(),
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_pending_deletion_next_attempt_at ON pending_deletion(next_attempt_at);
@@ -0,0 +1,23 @@
+-- Os ids passam a ser atribuídos em blocos de 50 (optimizer "pooled" do Hibernate): cada nextval devolve
+-- o limite superior do bloco, pelo que o próximo valor tem de ficar pelo menos 50 acima do maior id existente.
+-- O DEFAULT das colunas é removido: um INSERT que não traga id explícito cairia no meio de um bloco já reservado.
+
+ALTER SEQUENCE listing_id_seq INCREMENT BY 50;
+SELECT setval('listing_id_seq', COALESCE((SELECT MAX(id) FROM listing), 0) + 50, false);
+ALTER TABLE listing ALTER COLUMN id DROP DEFAULT;
+
+ALTER SEQUENCE listing_image_id_seq INCREMENT BY 50;
+SELECT setval('listing_image_id_seq', COALESCE((SELECT MAX(id) FROM listing_image), 0) + 50, false);
+ALTER TABLE listing_image ALTER COLUMN id DROP DEFAULT;
+
+ALTER SEQUENCE listing_video_id_seq INCREMENT BY 50;
+SELECT setval('listing_video_id_seq', COALESCE((SELECT MAX(id) FROM listing_video), 0) + 50, false);
+ALTER TABLE listing_video ALTER COLUMN id DROP DEFAULT;
+
+ALTER SEQUENCE booking_id_seq INCREMENT BY 50;
+SELECT setval('booking_id_seq', COALESCE((SELECT MAX(id) FROM booking), 0) + 50, false);
+ALTER TABLE booking ALTER COLUMN id DROP DEFAULT;
+
+ALTER SEQUENCE chat_message_id_seq INCREMENT BY 50;
+SELECT setval('chat_message_id_seq', COALESCE((SELECT MAX(id) FROM chat_message), 0) + 50, false);
+ALTER TABLE chat_message ALTER COLUMN id DROP DEFAULT;
@@ -0,0 +1,13 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Dicionário 'simple' (sem stemming), equivalente ao analyzer "standard" do índice do Elasticsearch.
+ALTER TABLE listing
+    ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(location, '')), 'B') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'C')
+    ) STORED;
+
+CREATE INDEX idx_listing_search_vector ON listing USING gin (search_vector);
+CREATE INDEX idx_listing_title_trgm ON listing USING gin (title gin_trgm_ops);
+CREATE INDEX idx_listing_location_trgm ON listing USING gin (location gin_trgm_ops);
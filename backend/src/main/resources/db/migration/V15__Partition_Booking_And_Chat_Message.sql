@@ -0,0 +1,136 @@
+-- booking passa a ser particionada por mês de check_in_date e chat_message por mês de timestamp.
+-- Numa tabela particionada a chave primária tem de incluir a coluna de partição, por isso deixa de ser
+-- possível ter FKs para booking(id): o ON DELETE CASCADE de chat_message e chat_read_marker passa para
+-- um trigger. As partições seguintes são criadas e as antigas arquivadas pelo PartitionMaintenanceService.
+
+CREATE SCHEMA IF NOT EXISTS archive;
+
+-- Cria a partição <parent>_pYYYY_MM se ainda não existir. Linhas desse mês que tenham caído na partição
+-- default são movidas para a nova antes do ATTACH, que de outra forma falharia.
+CREATE FUNCTION ensure_monthly_partition(parent TEXT, key_column TEXT, month DATE) RETURNS BOOLEAN
+    LANGUAGE plpgsql AS $$
+DECLARE
+    range_start DATE := date_trunc('month', month)::DATE;
+    range_end DATE := (date_trunc('month', month) + INTERVAL '1 month')::DATE;
+    partition_name TEXT := parent || '_p' || to_char(month, 'YYYY_MM');
+    default_name TEXT := parent || '_default';
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name, parent);
+    IF to_regclass(default_name) IS NOT NULL THEN
+        PERFORM set_config('party.partition_move', 'on', true);
+        EXECUTE format('WITH moved AS (DELETE FROM %I WHERE %I >= %L AND %I < %L RETURNING *) INSERT INTO %I SELECT * FROM moved',
+                       default_name, key_column, range_start, key_column, range_end, partition_name);
+        PERFORM set_config('party.partition_move', 'off', true);
+    END IF;
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   parent, partition_name, range_start, range_end);
+    RETURN true;
+END
+$$;
+
+-- Separa a partição e move-a para o schema de arquivo, onde continua consultável mas fora dos planos.
+CREATE FUNCTION archive_partition(parent TEXT, partition_name TEXT, archive_schema TEXT) RETURNS VOID
+    LANGUAGE plpgsql AS $$
+BEGIN
+    EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', parent, partition_name);
+    EXECUTE format('ALTER TABLE %I SET SCHEMA %I', partition_name, archive_schema);
+END
+$$;
+
+-- Substitui o ON DELETE CASCADE. Um UPDATE que muda check_in_date de mês é executado como DELETE + INSERT
+-- entre partições; nesse caso, e nas movimentações de ensure_monthly_partition, a reserva continua a existir.
+CREATE FUNCTION delete_booking_children() RETURNS TRIGGER
+    LANGUAGE plpgsql AS $$
+BEGIN
+    IF current_setting('party.partition_move', true) = 'on'
+        OR EXISTS (SELECT 1 FROM booking WHERE id = OLD.id) THEN
+        RETURN NULL;
+    END IF;
+    DELETE FROM chat_message WHERE booking_id = OLD.id;
+    DELETE FROM chat_read_marker WHERE booking_id = OLD.id;
+    RETURN NULL;
+END
+$$;
+
+ALTER SEQUENCE booking_id_seq OWNED BY NONE;
+ALTER SEQUENCE chat_message_id_seq OWNED BY NONE;
+
+ALTER TABLE chat_message RENAME TO chat_message_legacy;
+ALTER TABLE booking RENAME TO booking_legacy;
+
+CREATE TABLE booking (
+                         id BIGINT NOT NULL,
+                         user_id BIGINT NOT NULL REFERENCES users(id),
+                         listing_id BIGINT NOT NULL REFERENCES listing(id),
+                         check_in_date DATE NOT NULL,
+                         check_out_date DATE NOT NULL,
+                         total_price DECIMAL(10, 2) NOT NULL,
+                         status VARCHAR(50) DEFAULT 'PENDING',
+                         created_at TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+
+                         CONSTRAINT chk_dates CHECK (check_out_date > check_in_date)
+) PARTITION BY RANGE (check_in_date);
+
+-- Reservas para lá do horizonte já criado ficam na default até o job criar o mês respetivo.
+CREATE TABLE booking_default PARTITION OF booking DEFAULT;
+
+-- Sem partição default: com ela o Postgres deixa de conseguir percorrer as partições por ordem
+-- (ORDER BY timestamp DESC LIMIT n pararia na mais recente). As mensagens têm sempre timestamp atual.
+CREATE TABLE chat_message (
+                              id BIGINT NOT NULL,
+                              booking_id BIGINT NOT NULL,
+                              sender_id BIGINT REFERENCES users(id) ON DELETE SET NULL,
+                              content TEXT NOT NULL,
+                              timestamp TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+) PARTITION BY RANGE (timestamp);
+
+DO $$
+DECLARE
+    month DATE;
+BEGIN
+    FOR month IN SELECT generate_series(
+            date_trunc('month', LEAST(COALESCE((SELECT MIN(check_in_date) FROM booking_legacy), CURRENT_DATE), CURRENT_DATE)),
+            date_trunc('month', CURRENT_DATE) + INTERVAL '24 months',
+            INTERVAL '1 month')::DATE
+    LOOP
+        PERFORM ensure_monthly_partition('booking', 'check_in_date', month);
+    END LOOP;
+
+    FOR month IN SELECT generate_series(
+            date_trunc('month', LEAST(COALESCE((SELECT MIN(timestamp) FROM chat_message_legacy), CURRENT_TIMESTAMP), CURRENT_TIMESTAMP)),
+            date_trunc('month', CURRENT_TIMESTAMP) + INTERVAL '3 months',
+            INTERVAL '1 month')::DATE
+    LOOP
+        PERFORM ensure_monthly_partition('chat_message', 'timestamp', month);
+    END LOOP;
+END
+$$;
+
+INSERT INTO booking (id, user_id, listing_id, check_in_date, check_out_date, total_price, status, created_at)
+SELECT id, user_id, listing_id, check_in_date, check_out_date, total_price, status, created_at FROM booking_legacy;
+
+INSERT INTO chat_message (id, booking_id, sender_id, content, timestamp)
+SELECT id, booking_id, sender_id, content, COALESCE(timestamp, CURRENT_TIMESTAMP) FROM chat_message_legacy;
+
+DROP TABLE chat_message_legacy;
+-- CASCADE remove também a FK de chat_read_marker para booking_legacy.
+DROP TABLE booking_legacy CASCADE;
+
+ALTER TABLE booking ADD PRIMARY KEY (id, check_in_date);
+CREATE INDEX idx_booking_user_id ON booking(user_id);
+CREATE INDEX idx_booking_listing_id_check_in_date ON booking(listing_id, check_in_date);
+
+ALTER TABLE chat_message ADD PRIMARY KEY (id, timestamp);
+CREATE INDEX idx_chat_message_booking_id_timestamp ON chat_message(booking_id, timestamp);
+CREATE INDEX idx_chat_message_booking_id_id ON chat_message(booking_id, id);
+CREATE INDEX idx_chat_message_sender_id ON chat_message(sender_id);
+
+CREATE TRIGGER trg_booking_delete_children
+    AFTER DELETE ON booking
+    FOR EACH ROW EXECUTE FUNCTION delete_booking_children();
+
+ALTER SEQUENCE booking_id_seq OWNED BY booking.id;
+ALTER SEQUENCE chat_message_id_seq OWNED BY chat_message.id;
@@ -0,0 +1,15 @@
+-- Com ids pooled (blocos de 50 por nó) e o write-behind, a ordem dos ids deixa de seguir a ordem das
+-- mensagens. A última mensagem e as não lidas passam a ser decididas por (timestamp, id).
+ALTER TABLE chat_read_marker ADD COLUMN last_read_timestamp TIMESTAMP WITHOUT TIME ZONE;
+
+UPDATE chat_read_marker r SET last_read_timestamp = m.timestamp
+FROM chat_message m
+WHERE m.booking_id = r.booking_id AND m.id = r.last_read_message_id;
+
+-- Marcadores cuja mensagem já não existe: considera-se lido tudo até à última atualização do marcador.
+UPDATE chat_read_marker SET last_read_timestamp = COALESCE(updated_at, CURRENT_TIMESTAMP)
+WHERE last_read_timestamp IS NULL;
+
+ALTER TABLE chat_read_marker ALTER COLUMN last_read_timestamp SET NOT NULL;
+
+DROP INDEX idx_chat_message_booking_id_id;
@@ -0,0 +1,42 @@
+-- Uma partição separada com DETACH mantém as FKs herdadas da tabela-mãe (users e listing): apagar um
+-- utilizador ou um listing com linhas arquivadas falharia. O arquivo passa a não ter FKs.
+-- Ao arquivar um mês de booking, as mensagens dessas reservas saem de chat_message para
+-- <archive>.<partição>_chat_message e os marcadores de leitura são apagados: sem a reserva, o chat
+-- deixa de ser acessível e não há nada a marcar como lido. O DETACH não dispara o trigger de DELETE.
+CREATE OR REPLACE FUNCTION archive_partition(parent TEXT, partition_name TEXT, archive_schema TEXT) RETURNS VOID
+    LANGUAGE plpgsql AS $$
+DECLARE
+    chat_archive TEXT := partition_name || '_chat_message';
+    fk RECORD;
+BEGIN
+    IF parent = 'booking' THEN
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I.%I (LIKE chat_message INCLUDING DEFAULTS)', archive_schema, chat_archive);
+        EXECUTE format('WITH moved AS (DELETE FROM chat_message m USING %I b WHERE m.booking_id = b.id RETURNING m.*) '
+                           'INSERT INTO %I.%I SELECT * FROM moved', partition_name, archive_schema, chat_archive);
+        EXECUTE format('DELETE FROM chat_read_marker r USING %I b WHERE r.booking_id = b.id', partition_name);
+    END IF;
+
+    EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', parent, partition_name);
+    FOR fk IN SELECT conname FROM pg_constraint
+              WHERE conrelid = format('%I', partition_name)::regclass AND contype = 'f'
+    LOOP
+        EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', partition_name, fk.conname);
+    END LOOP;
+    EXECUTE format('ALTER TABLE %I SET SCHEMA %I', partition_name, archive_schema);
+END
+$$;
+
+-- Partições já arquivadas antes desta versão.
+DO $$
+DECLARE
+    fk RECORD;
+BEGIN
+    FOR fk IN SELECT c.conrelid::regclass AS table_name, c.conname FROM pg_constraint c
+              JOIN pg_class t ON t.oid = c.conrelid
+              JOIN pg_namespace n ON n.oid = t.relnamespace
+              WHERE n.nspname = 'archive' AND c.contype = 'f'
+    LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.table_name, fk.conname);
+    END LOOP;
+END
+$$;
@@ -0,0 +1,9 @@
+CREATE TABLE chat_read_marker (
+                                  booking_id BIGINT NOT NULL REFERENCES booking(id) ON DELETE CASCADE,
+                                  user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+                                  last_read_message_id BIGINT NOT NULL,
+                                  updated_at TIMESTAMP WITHOUT TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+                                  PRIMARY KEY (booking_id, user_id)
+);
+
+CREATE INDEX idx_chat_message_booking_id_id ON chat_message(booking_id, id);
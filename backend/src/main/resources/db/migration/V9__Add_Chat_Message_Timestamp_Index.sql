@@ -0,0 +1 @@
+CREATE INDEX idx_chat_message_booking_id_timestamp ON chat_message(booking_id, timestamp);
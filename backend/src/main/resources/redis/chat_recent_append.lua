@@ -0,0 +1,23 @@
+-- Acrescenta uma mensagem ao histórico recente de uma sala.
+-- KEYS[1] = lista da sala, KEYS[2] = buffer do aquecimento em curso
+-- ARGV = mensagem, capacidade, ttl da lista (s)
+-- Sala aquecida: vai para a lista. A aquecer: vai para o buffer, que o store junta ao snapshot da BD.
+-- Nenhum dos dois: nada, para a lista nunca ficar com um histórico incompleto.
+-- Uma mensagem gravada antes da leitura do snapshot mas acrescentada depois do store já lá está: ignora-se.
+local capacity = tonumber(ARGV[2])
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    for _, value in ipairs(redis.call('LRANGE', KEYS[1], 0, -1)) do
+        if value == ARGV[1] then
+            return 0
+        end
+    end
+    redis.call('RPUSH', KEYS[1], ARGV[1])
+    redis.call('LTRIM', KEYS[1], -capacity, -1)
+    redis.call('EXPIRE', KEYS[1], ARGV[3])
+    return 1
+end
+if redis.call('RPUSHX', KEYS[2], ARGV[1]) > 0 then
+    redis.call('LTRIM', KEYS[2], -capacity, -1)
+    return 2
+end
+return 0
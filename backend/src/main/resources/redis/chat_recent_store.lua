@@ -0,0 +1,34 @@
+-- Aquece o histórico recente de uma sala com o snapshot lido da BD e as mensagens acrescentadas ao buffer
+-- desde que o aquecimento começou. As que já estão no snapshot (mesmo JSON) não são repetidas.
+-- KEYS[1] = lista da sala, KEYS[2] = buffer do aquecimento
+-- ARGV = capacidade, ttl da lista (s), mensagens do snapshot (mais antiga primeiro)
+local capacity = tonumber(ARGV[1])
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    redis.call('DEL', KEYS[2])
+    return 0
+end
+
+local seen = {}
+local values = {}
+for i = 3, #ARGV do
+    seen[ARGV[i]] = true
+    values[#values + 1] = ARGV[i]
+end
+-- O buffer começa com um marcador vazio, posto por beginWarm.
+for _, value in ipairs(redis.call('LRANGE', KEYS[2], 0, -1)) do
+    if value ~= '' and not seen[value] then
+        seen[value] = true
+        values[#values + 1] = value
+    end
+end
+redis.call('DEL', KEYS[2])
+
+if #values == 0 then
+    return 0
+end
+for i = 1, #values, 1000 do
+    redis.call('RPUSH', KEYS[1], unpack(values, i, math.min(i + 999, #values)))
+end
+redis.call('LTRIM', KEYS[1], -capacity, -1)
+redis.call('EXPIRE', KEYS[1], ARGV[2])
+return #values
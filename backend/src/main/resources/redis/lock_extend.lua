@@ -0,0 +1,6 @@
+-- Prolonga o TTL de um lock se ainda pertencer a quem o adquiriu. Devolve 0 se o lock foi perdido.
+-- KEYS[1] = chave do lock, ARGV[1] = token do dono, ARGV[2] = novo TTL (ms)
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+end
+return 0
@@ -0,0 +1,7 @@
+-- Liberta um lock só se ainda pertencer a quem o adquiriu; um lock expirado e já tomado por outro nó
+-- não é apagado.
+-- KEYS[1] = chave do lock, ARGV[1] = token do dono
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
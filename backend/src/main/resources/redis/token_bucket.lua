@@ -0,0 +1,28 @@
+-- Token bucket atómico. Devolve {tokens concedidos, ms até haver 1 token}.
+-- KEYS[1] = chave do bucket; ARGV = capacidade, tokens por ms, tokens pedidos (concede entre 1 e este valor)
+local capacity = tonumber(ARGV[1])
+local refill_per_ms = tonumber(ARGV[2])
+local requested = tonumber(ARGV[3])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+local tokens = tonumber(bucket[1]) or capacity
+local ts = tonumber(bucket[2]) or now
+
+tokens = math.min(capacity, tokens + math.max(0, now - ts) * refill_per_ms)
+
+local granted = math.min(math.floor(tokens), requested)
+local retry_after = 0
+if granted >= 1 then
+    tokens = tokens - granted
+else
+    granted = 0
+    retry_after = math.ceil((1 - tokens) / refill_per_ms)
+end
+
+redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', now)
+redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / refill_per_ms) + 1000)
+
+return {granted, retry_after}
@@ -0,0 +1,77 @@
+package com.party.backend.benchmark;
+
+import com.party.backend.model.User;
+import com.party.backend.model.enums.Role;
+import com.party.backend.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo do JwtAuthenticationFilter por pedido: caminho antigo (três parses, chave HMAC recriada em cada
+ * um) contra o caminho atual (um parse com parser reutilizado e principal construído a partir das claims).
+ * A query a "users" do caminho antigo não entra na medição; no servidor soma-se-lhe um round trip à BD.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+
+    private static final String SECRET = "1e2a8618608c05b18d7e359bb6437857";
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET, 15);
+        user = new User();
+        user.setId(42L);
+        user.setEmail("benchmark@party.com");
+        user.setFirstName("Bench");
+        user.setRole(Role.USER);
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public UserDetails legacyFilterPath() {
+        String username = legacyParse(token).getSubject();
+        UserDetails userDetails = user;
+        boolean valid = legacyParse(token).getSubject().equals(username)
+                && !legacyParse(token).getExpiration().before(new Date());
+        return valid ? userDetails : null;
+    }
+
+    @Benchmark
+    public UserDetails parseOncePath() {
+        Claims claims = jwtService.parseClaims(token);
+        return jwtService.buildPrincipal(claims).orElseThrow();
+    }
+
+    private Claims legacyParse(String jwt) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(jwt)
+                .getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,183 @@
+package com.party.backend.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pesquisa de listings no Elasticsearch (multi_match com fuzziness AUTO, como em ListingService) contra a
+ * pesquisa em PostgreSQL (tsvector + GIN e trigramas), sobre o mesmo conjunto sintético de listings.
+ * Os dados vão para uma tabela temporária e para um índice próprio, apagado no fim; é preciso o pg_trgm instalado.
+ * <p>
+ * {@code BENCHMARK_JDBC_URL=... BENCHMARK_ES_URL=http://localhost:9200 mvn -Pbenchmark verify -Dbenchmark=ListingSearchBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListingSearchBenchmark {
+
+    private static final int MAX_RESULTS = 10;
+    private static final String[] KINDS = {"Casa", "Quinta", "Salão", "Terraço", "Armazém", "Villa", "Loft", "Jardim"};
+    private static final String[] FEATURES = {"com piscina", "com vista mar", "com churrasqueira", "para festas",
+            "com jardim", "rústico", "moderno", "com estacionamento", "com cozinha equipada", "junto à praia"};
+    private static final String[] LOCATIONS = {"Lisboa", "Porto", "Braga", "Coimbra", "Faro", "Aveiro", "Sintra",
+            "Cascais", "Évora", "Setúbal", "Leiria", "Viseu"};
+    private static final String[] QUERIES = {"piscina", "quinta porto", "vista mar", "churasqueira", "Lisbao",
+            "salão para festas", "jardim sintra", "loft moderno"};
+
+    @Param({"1000", "10000", "100000"})
+    private int listings;
+
+    private Connection connection;
+    private HttpClient httpClient;
+    private String esUrl;
+    private String indexName;
+    private int nextQuery;
+
+    @Setup
+    public void setUp() throws SQLException, IOException, InterruptedException {
+        connection = DriverManager.getConnection(
+                envOrDefault("BENCHMARK_JDBC_URL", "jdbc:postgresql://localhost:5432/partydb") + "?reWriteBatchedInserts=true",
+                envOrDefault("BENCHMARK_JDBC_USER", "admin"),
+                envOrDefault("BENCHMARK_JDBC_PASSWORD", "admin_password"));
+        httpClient = HttpClient.newHttpClient();
+        esUrl = envOrDefault("BENCHMARK_ES_URL", "http://localhost:9200");
+        indexName = "listings-benchmark-" + listings;
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TEMP TABLE bench_listing (
+                        id BIGINT PRIMARY KEY,
+                        title TEXT NOT NULL,
+                        description TEXT,
+                        location TEXT NOT NULL,
+                        search_vector tsvector GENERATED ALWAYS AS (
+                            setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+                            setweight(to_tsvector('simple', coalesce(location, '')), 'B') ||
+                            setweight(to_tsvector('simple', coalesce(description, '')), 'C')
+                        ) STORED
+                    )""");
+        }
+        es("DELETE", "/" + indexName, null);
+        es("PUT", "/" + indexName, """
+                {"mappings": {"properties": {
+                    "title": {"type": "text", "analyzer": "standard"},
+                    "description": {"type": "text", "analyzer": "standard"},
+                    "location": {"type": "keyword"}
+                }}}""");
+
+        Random random = new Random(42);
+        StringBuilder bulk = new StringBuilder();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO bench_listing (id, title, description, location) VALUES (?, ?, ?, ?)")) {
+            for (int id = 1; id <= listings; id++) {
+                String title = KINDS[random.nextInt(KINDS.length)] + " " + FEATURES[random.nextInt(FEATURES.length)];
+                String description = "Espaço " + FEATURES[random.nextInt(FEATURES.length)] + " e "
+                        + FEATURES[random.nextInt(FEATURES.length)] + ", ideal para eventos até " + (10 + random.nextInt(200)) + " pessoas.";
+                String location = LOCATIONS[random.nextInt(LOCATIONS.length)];
+                insert.setLong(1, id);
+                insert.setString(2, title);
+                insert.setString(3, description);
+                insert.setString(4, location);
+                insert.addBatch();
+                bulk.append("{\"index\":{\"_id\":").append(id).append("}}\n")
+                        .append("{\"title\":\"").append(title).append("\",\"description\":\"").append(description)
+                        .append("\",\"location\":\"").append(location).append("\"}\n");
+                if (id % 5000 == 0 || id == listings) {
+                    insert.executeBatch();
+                    es("POST", "/" + indexName + "/_bulk", bulk.toString());
+                    bulk.setLength(0);
+                }
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX ON bench_listing USING gin (search_vector)");
+            statement.execute("CREATE INDEX ON bench_listing USING gin (title gin_trgm_ops)");
+            statement.execute("CREATE INDEX ON bench_listing USING gin (location gin_trgm_ops)");
+            statement.execute("ANALYZE bench_listing");
+        }
+        es("POST", "/" + indexName + "/_refresh", null);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException, IOException, InterruptedException {
+        es("DELETE", "/" + indexName, null);
+        connection.close();
+    }
+
+    @Benchmark
+    public List<Long> postgres() throws SQLException {
+        String query = nextQuery();
+        List<Long> ids = new ArrayList<>(MAX_RESULTS);
+        try (PreparedStatement statement = connection.prepareStatement("""
+                SELECT l.id FROM bench_listing l, websearch_to_tsquery('simple', ?) q
+                WHERE l.search_vector @@ q OR ? <% l.title OR ? <% l.location
+                ORDER BY ts_rank(l.search_vector, q) + word_similarity(?, l.title) DESC, l.id
+                LIMIT ?""")) {
+            for (int i = 1; i <= 4; i++) {
+                statement.setString(i, query);
+            }
+            statement.setInt(5, MAX_RESULTS);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    ids.add(resultSet.getLong(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    @Benchmark
+    public String elasticsearch() throws IOException, InterruptedException {
+        return es("POST", "/" + indexName + "/_search", """
+                {"size": %d, "query": {"bool": {"must": [{"multi_match": {
+                    "query": "%s", "fields": ["title", "description", "location"], "fuzziness": "AUTO"
+                }}]}}}""".formatted(MAX_RESULTS, nextQuery()));
+    }
+
+    private String nextQuery() {
+        return QUERIES[nextQuery++ % QUERIES.length];
+    }
+
+    private String es(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(esUrl + path));
+        if (body != null) {
+            request.header("Content-Type", path.endsWith("_bulk") ? "application/x-ndjson" : "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(body));
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ListingSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
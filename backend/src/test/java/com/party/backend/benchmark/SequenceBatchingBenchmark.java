@@ -0,0 +1,176 @@
+package com.party.backend.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Padrão de round trips que o Hibernate gera com IDENTITY (um INSERT ... RETURNING id por linha, sem batching)
+ * contra sequências pooled (um nextval por cada 50 ids) com inserts em batch JDBC. Mede a criação de um listing
+ * com 20 imagens e a gravação de 100 mensagens de chat, em tabelas temporárias de um PostgreSQL real.
+ * <p>
+ * {@code BENCHMARK_JDBC_URL=jdbc:postgresql://localhost:5432/partydb mvn -Pbenchmark verify -Dbenchmark=SequenceBatchingBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SequenceBatchingBenchmark {
+
+    private static final int IMAGES_PER_LISTING = 20;
+    private static final int CHAT_MESSAGES = 100;
+    private static final int ALLOCATION_SIZE = 50;
+
+    private Connection connection;
+    private final Map<String, long[]> pools = new HashMap<>();
+
+    @Setup
+    public void setUp() throws SQLException {
+        String url = envOrDefault("BENCHMARK_JDBC_URL", "jdbc:postgresql://localhost:5432/partydb");
+        connection = DriverManager.getConnection(url + (url.contains("?") ? "&" : "?") + "reWriteBatchedInserts=true",
+                envOrDefault("BENCHMARK_JDBC_USER", "admin"),
+                envOrDefault("BENCHMARK_JDBC_PASSWORD", "admin_password"));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TEMP TABLE bench_identity_listing (id BIGSERIAL PRIMARY KEY, title TEXT NOT NULL)");
+            statement.execute("CREATE TEMP TABLE bench_identity_image (id BIGSERIAL PRIMARY KEY, listing_id BIGINT NOT NULL, image_url TEXT NOT NULL, is_cover BOOLEAN)");
+            statement.execute("CREATE TEMP TABLE bench_identity_chat (id BIGSERIAL PRIMARY KEY, booking_id BIGINT NOT NULL, content TEXT NOT NULL, timestamp TIMESTAMP)");
+            statement.execute("CREATE TEMP SEQUENCE bench_listing_seq INCREMENT BY " + ALLOCATION_SIZE + " START WITH " + ALLOCATION_SIZE);
+            statement.execute("CREATE TEMP SEQUENCE bench_image_seq INCREMENT BY " + ALLOCATION_SIZE + " START WITH " + ALLOCATION_SIZE);
+            statement.execute("CREATE TEMP SEQUENCE bench_chat_seq INCREMENT BY " + ALLOCATION_SIZE + " START WITH " + ALLOCATION_SIZE);
+            statement.execute("CREATE TEMP TABLE bench_pooled_listing (id BIGINT PRIMARY KEY, title TEXT NOT NULL)");
+            statement.execute("CREATE TEMP TABLE bench_pooled_image (id BIGINT PRIMARY KEY, listing_id BIGINT NOT NULL, image_url TEXT NOT NULL, is_cover BOOLEAN)");
+            statement.execute("CREATE TEMP TABLE bench_pooled_chat (id BIGINT PRIMARY KEY, booking_id BIGINT NOT NULL, content TEXT NOT NULL, timestamp TIMESTAMP)");
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public long createListingIdentity() throws SQLException {
+        long listingId;
+        try (PreparedStatement insertListing = connection.prepareStatement(
+                "INSERT INTO bench_identity_listing (title) VALUES (?) RETURNING id")) {
+            insertListing.setString(1, "Casa com piscina");
+            listingId = returnedId(insertListing);
+        }
+        try (PreparedStatement insertImage = connection.prepareStatement(
+                "INSERT INTO bench_identity_image (listing_id, image_url, is_cover) VALUES (?, ?, ?) RETURNING id")) {
+            for (int i = 0; i < IMAGES_PER_LISTING; i++) {
+                insertImage.setLong(1, listingId);
+                insertImage.setString(2, "http://localhost:9000/party-listings/image-" + i + ".jpg");
+                insertImage.setBoolean(3, i == 0);
+                returnedId(insertImage);
+            }
+        }
+        connection.commit();
+        return listingId;
+    }
+
+    @Benchmark
+    public long createListingPooledBatch() throws SQLException {
+        long listingId = nextId("bench_listing_seq");
+        try (PreparedStatement insertListing = connection.prepareStatement(
+                "INSERT INTO bench_pooled_listing (id, title) VALUES (?, ?)")) {
+            insertListing.setLong(1, listingId);
+            insertListing.setString(2, "Casa com piscina");
+            insertListing.executeUpdate();
+        }
+        try (PreparedStatement insertImage = connection.prepareStatement(
+                "INSERT INTO bench_pooled_image (id, listing_id, image_url, is_cover) VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < IMAGES_PER_LISTING; i++) {
+                insertImage.setLong(1, nextId("bench_image_seq"));
+                insertImage.setLong(2, listingId);
+                insertImage.setString(3, "http://localhost:9000/party-listings/image-" + i + ".jpg");
+                insertImage.setBoolean(4, i == 0);
+                insertImage.addBatch();
+            }
+            insertImage.executeBatch();
+        }
+        connection.commit();
+        return listingId;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHAT_MESSAGES)
+    public void chatInsertIdentity() throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO bench_identity_chat (booking_id, content, timestamp) VALUES (?, ?, ?) RETURNING id")) {
+            for (int i = 0; i < CHAT_MESSAGES; i++) {
+                insert.setLong(1, 1L);
+                insert.setString(2, "Mensagem " + i);
+                insert.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+                returnedId(insert);
+            }
+        }
+        connection.commit();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHAT_MESSAGES)
+    public void chatInsertPooledBatch() throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO bench_pooled_chat (id, booking_id, content, timestamp) VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < CHAT_MESSAGES; i++) {
+                insert.setLong(1, nextId("bench_chat_seq"));
+                insert.setLong(2, 1L);
+                insert.setString(3, "Mensagem " + i);
+                insert.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+    }
+
+    private long returnedId(PreparedStatement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    /**
+     * Mesmo comportamento do optimizer "pooled" do Hibernate: o nextval é o limite superior do bloco.
+     */
+    private long nextId(String sequence) throws SQLException {
+        long[] pool = pools.computeIfAbsent(sequence, name -> new long[]{1, 0});
+        if (pool[0] > pool[1]) {
+            try (PreparedStatement statement = connection.prepareStatement("SELECT nextval(?::regclass)")) {
+                statement.setString(1, sequence);
+                pool[1] = returnedId(statement);
+                pool[0] = pool[1] - ALLOCATION_SIZE + 1;
+            }
+        }
+        return pool[0]++;
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SequenceBatchingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,81 @@
+package com.party.backend.config;
+
+import com.party.backend.model.User;
+import com.party.backend.service.ChatRoomMembershipCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChatRoomAuthorizationInterceptorTest {
+
+    private static final long USER_ID = 7L;
+    private static final long OWN_ROOM = 10L;
+    private static final long OTHER_ROOM = 11L;
+
+    private ChatRoomAuthorizationInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        ChatRoomMembershipCache membershipCache = mock(ChatRoomMembershipCache.class);
+        when(membershipCache.isParticipant(OWN_ROOM, USER_ID)).thenReturn(true);
+        interceptor = new ChatRoomAuthorizationInterceptor(membershipCache, Set.of("/topic/announcements"));
+    }
+
+    @Test
+    void rejectsWildcardSubscriptions() {
+        for (String destination : List.of("/topic/*", "/topic/**", "/topic/1?", "/topic/{id}", "/user/topic/*")) {
+            Message<byte[]> message = stomp(StompCommand.SUBSCRIBE, destination);
+            assertThatThrownBy(() -> interceptor.preSend(message, null))
+                    .as(destination)
+                    .isInstanceOf(AccessDeniedException.class);
+        }
+    }
+
+    @Test
+    void allowsOnlyOwnRoomsAndPublicTopics() {
+        Message<byte[]> ownRoom = stomp(StompCommand.SUBSCRIBE, "/topic/" + OWN_ROOM);
+        Message<byte[]> publicTopic = stomp(StompCommand.SUBSCRIBE, "/topic/announcements");
+        Message<byte[]> notifications = stomp(StompCommand.SUBSCRIBE, "/user/topic/notification");
+
+        assertThat(interceptor.preSend(ownRoom, null)).isSameAs(ownRoom);
+        assertThat(interceptor.preSend(publicTopic, null)).isSameAs(publicTopic);
+        assertThat(interceptor.preSend(notifications, null)).isSameAs(notifications);
+
+        for (String destination : List.of("/topic/" + OTHER_ROOM, "/topic/notification", "/topic/10/extra", "/queue/errors")) {
+            Message<byte[]> message = stomp(StompCommand.SUBSCRIBE, destination);
+            assertThatThrownBy(() -> interceptor.preSend(message, null))
+                    .as(destination)
+                    .isInstanceOf(AccessDeniedException.class);
+        }
+    }
+
+    @Test
+    void rejectsSendsStraightToTheBroker() {
+        Message<byte[]> message = stomp(StompCommand.SEND, "/topic/" + OWN_ROOM);
+
+        assertThatThrownBy(() -> interceptor.preSend(message, null)).isInstanceOf(AccessDeniedException.class);
+    }
+
+    private static Message<byte[]> stomp(StompCommand command, String destination) {
+        User user = new User();
+        user.setId(USER_ID);
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setDestination(destination);
+        accessor.setUser(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,80 @@
+package com.party.backend.service;
+
+import com.party.backend.dto.booking.BookingRequestDTO;
+import com.party.backend.model.User;
+import com.party.backend.support.ServiceTestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+
+import static com.party.backend.support.QueryCountAssertions.assertMaxStatements;
+
+class BookingServiceQueryCountTest extends ServiceTestData {
+
+    @Autowired
+    private BookingService bookingService;
+
+    private User host;
+    private User client;
+
+    @BeforeEach
+    void setUp() {
+        host = createUser("Anfitriao");
+        client = createUser("Cliente");
+    }
+
+    @Test
+    void createBooking() {
+        Long listingId = createListing(host, "Reservável", 1);
+        BookingRequestDTO request = new BookingRequestDTO();
+        request.setListingId(listingId);
+        request.setCheckInDate(LocalDate.now().plusDays(5));
+        request.setCheckOutDate(LocalDate.now().plusDays(8));
+        assertMaxStatements(5, () -> bookingService.createBooking(request, client));
+    }
+
+    @Test
+    void getBookingsForCurrentUser() {
+        for (int i = 0; i < 3; i++) {
+            createBooking(client, createListing(host, "Listing " + i, 0), LocalDate.now().plusDays(10));
+        }
+        assertMaxStatements(1, () -> bookingService.getBookingsForCurrentUser(client));
+    }
+
+    @Test
+    void getBookingsForListing() {
+        Long listingId = createListing(host, "Muito procurado", 0);
+        for (int i = 0; i < 3; i++) {
+            createBooking(createUser("Cliente" + i), listingId, LocalDate.now().plusDays(10 + i * 5));
+        }
+        assertMaxStatements(2, () -> bookingService.getBookingsForListing(listingId, host));
+    }
+
+    @Test
+    void deleteBooking() {
+        Long bookingId = createBooking(client, createListing(host, "Cancelável", 0), LocalDate.now().plusDays(10));
+        for (int i = 0; i < 5; i++) {
+            createChatMessage(bookingId, client, "Mensagem " + i);
+        }
+        assertMaxStatements(2, () -> bookingService.deleteBooking(bookingId, client));
+    }
+
+    @Test
+    void getBookingsForHost() {
+        for (int i = 0; i < 3; i++) {
+            createBooking(createUser("Cliente" + i), createListing(host, "Listing " + i, 0), LocalDate.now().plusDays(10));
+        }
+        assertMaxStatements(1, () -> bookingService.getBookingsForHost(host));
+    }
+
+    @Test
+    void getUserConversations() {
+        for (int i = 0; i < 3; i++) {
+            Long bookingId = createBooking(client, createListing(host, "Listing " + i, 0), LocalDate.now().plusDays(10));
+            createChatMessage(bookingId, host, "Olá " + i);
+        }
+        assertMaxStatements(1, () -> bookingService.getUserConversations(client));
+    }
+}
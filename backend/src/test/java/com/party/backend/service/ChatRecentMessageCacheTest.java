@@ -0,0 +1,61 @@
+package com.party.backend.service;
+
+import com.party.backend.dto.ChatMessageDTO;
+import com.party.backend.support.ServiceTestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatRecentMessageCacheTest extends ServiceTestData {
+
+    private static final long BOOKING_ID = -1L;
+
+    @Autowired
+    private ChatRecentMessageCache chatRecentMessageCache;
+
+    @BeforeEach
+    void setUp() {
+        chatRecentMessageCache.evict(BOOKING_ID);
+    }
+
+    @Test
+    void keepsMessagesAppendedWhileWarming() {
+        ChatMessageDTO fromDatabase = message("Antiga");
+        ChatMessageDTO appendedDuringWarm = message("Nova");
+
+        chatRecentMessageCache.beginWarm(BOOKING_ID);
+        chatRecentMessageCache.append(BOOKING_ID, appendedDuringWarm);
+        chatRecentMessageCache.store(BOOKING_ID, List.of(fromDatabase));
+
+        assertThat(chatRecentMessageCache.getRecent(BOOKING_ID)).contains(List.of(fromDatabase, appendedDuringWarm));
+    }
+
+    @Test
+    void doesNotDuplicateMessagesAlreadyInSnapshot() {
+        ChatMessageDTO message = message("Olá");
+
+        chatRecentMessageCache.beginWarm(BOOKING_ID);
+        chatRecentMessageCache.append(BOOKING_ID, message);
+        chatRecentMessageCache.store(BOOKING_ID, List.of(message));
+        chatRecentMessageCache.append(BOOKING_ID, message);
+
+        assertThat(chatRecentMessageCache.getRecent(BOOKING_ID)).contains(List.of(message));
+    }
+
+    @Test
+    void ignoresAppendsToColdRooms() {
+        chatRecentMessageCache.append(BOOKING_ID, message("Olá"));
+
+        assertThat(chatRecentMessageCache.getRecent(BOOKING_ID)).isEmpty();
+    }
+
+    private static ChatMessageDTO message(String content) {
+        return new ChatMessageDTO("Cliente", 1L, content, LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+    }
+}
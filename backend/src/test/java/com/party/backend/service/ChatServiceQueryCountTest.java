@@ -0,0 +1,89 @@
+package com.party.backend.service;
+
+import com.party.backend.dto.ChatMessageDTO;
+import com.party.backend.model.User;
+import com.party.backend.repository.ChatMessageBatchRepository.PendingChatMessage;
+import com.party.backend.support.ServiceTestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.party.backend.support.QueryCountAssertions.assertMaxStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatServiceQueryCountTest extends ServiceTestData {
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private ChatRoomMembershipCache chatRoomMembershipCache;
+
+    @Autowired
+    private ChatRecentMessageCache chatRecentMessageCache;
+
+    private User host;
+    private User client;
+    private Long bookingId;
+
+    @BeforeEach
+    void setUp() {
+        host = createUser("Anfitriao");
+        client = createUser("Cliente");
+        bookingId = createBooking(client, createListing(host, "Conversa", 0), LocalDate.now().plusDays(10));
+        chatRoomMembershipCache.evict(bookingId);
+        chatRecentMessageCache.evict(bookingId);
+    }
+
+    @Test
+    void saveMessage() {
+        ChatMessageDTO message = new ChatMessageDTO(client.getFirstName(), client.getId(), "Olá", null);
+        assertMaxStatements(3, () -> chatService.saveMessage(message, bookingId));
+    }
+
+    @Test
+    void notifyRecipients() {
+        List<PendingChatMessage> messages = List.of(
+                new PendingChatMessage(bookingId, client.getId(), client.getFirstName(), "Um", LocalDateTime.now()),
+                new PendingChatMessage(bookingId, host.getId(), host.getFirstName(), "Dois", LocalDateTime.now()),
+                new PendingChatMessage(bookingId, client.getId(), client.getFirstName(), "Três", LocalDateTime.now())
+        );
+        assertMaxStatements(1, () -> chatService.notifyRecipients(messages));
+    }
+
+    @Test
+    void markConversationAsRead() {
+        createChatMessage(bookingId, host, "Olá");
+        assertMaxStatements(2, () -> chatService.markConversationAsRead(bookingId, client));
+    }
+
+    @Test
+    void getMessageHistory() {
+        for (int i = 0; i < 10; i++) {
+            createChatMessage(bookingId, i % 2 == 0 ? host : client, "Mensagem " + i);
+        }
+        List<ChatMessageDTO> recent = assertMaxStatements(2, () -> chatService.getMessageHistory(bookingId, client, null, 20));
+        assertThat(recent).hasSize(10);
+    }
+
+    @Test
+    void getMessageHistoryBefore() {
+        for (int i = 0; i < 10; i++) {
+            createChatMessage(bookingId, i % 2 == 0 ? host : client, "Mensagem " + i);
+        }
+        assertMaxStatements(2, () -> chatService.getMessageHistory(bookingId, client, LocalDateTime.now().plusMinutes(1), 5));
+    }
+
+    @Test
+    void getMessageHistoryClampsSize() {
+        for (int i = 0; i < 3; i++) {
+            createChatMessage(bookingId, host, "Mensagem " + i);
+        }
+        assertThat(chatService.getMessageHistory(bookingId, client, null, 0)).hasSize(1);
+        assertThat(chatService.getMessageHistory(bookingId, client, LocalDateTime.now().plusMinutes(1), -5)).hasSize(1);
+    }
+}
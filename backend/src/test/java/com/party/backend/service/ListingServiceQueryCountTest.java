@@ -0,0 +1,169 @@
+package com.party.backend.service;
+
+import com.party.backend.dto.listing.ListingRequestDTO;
+import com.party.backend.dto.listing.ListingResponseDTO;
+import com.party.backend.model.User;
+import com.party.backend.support.ServiceTestData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.party.backend.support.QueryCountAssertions.assertMaxStatements;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class ListingServiceQueryCountTest extends ServiceTestData {
+
+    @Autowired
+    private ListingService listingService;
+
+    @MockitoBean
+    private StorageService storageService;
+
+    private User host;
+
+    @BeforeEach
+    void setUp() {
+        host = createUser("Anfitriao");
+    }
+
+    @Test
+    void getAllListings() {
+        for (int i = 0; i < 5; i++) {
+            createListing(host, "Listing " + i, 3);
+        }
+        assertMaxStatements(4, () -> listingService.getAllListings());
+    }
+
+    @Test
+    void getListingById() {
+        Long listingId = createListing(host, "Detalhe", 5);
+        ListingResponseDTO response = assertMaxStatements(5, () -> listingService.getListingById(listingId));
+        assertThat(response.getImageUrls()).hasSize(5);
+    }
+
+    @Test
+    void createListing() {
+        ListingRequestDTO request = request("Novo listing", List.of(imageUrl("a"), imageUrl("b"), imageUrl("c")));
+        request.setVideoUrls(List.of(imageUrl("video")));
+        request.setAmenityIds(Set.of(createAmenity(), createAmenity()));
+        assertMaxStatements(10, () -> listingService.createListing(request, host));
+    }
+
+    @Test
+    void updateListing() {
+        Long listingId = createListing(host, "Antes", 3);
+        ListingRequestDTO request = request("Depois", List.of(existingImageUrl(listingId, 1), existingImageUrl(listingId, 2), imageUrl("nova")));
+        request.setAmenityIds(Set.of(createAmenity()));
+        assertMaxStatements(16, () -> listingService.updateListing(listingId, request, host));
+    }
+
+    @Test
+    void patchListing() {
+        Long listingId = createListing(host, "Antes", 3);
+        ListingRequestDTO request = new ListingRequestDTO();
+        request.setTitle("Só o título");
+        assertMaxStatements(7, () -> listingService.patchListing(listingId, request, host));
+    }
+
+    @Test
+    void patchListingRejectsInvalidPresentFields() {
+        Long listingId = createListing(host, "Antes", 3);
+        ListingRequestDTO request = new ListingRequestDTO();
+        request.setTitle(" ");
+        request.setMaxGuests(0);
+        assertThatThrownBy(() -> listingService.patchListing(listingId, request, host))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("O título é obrigatório")
+                .hasMessageContaining("O número máximo de hóspedes deve ser pelo menos 1");
+    }
+
+    @Test
+    void deleteListing() {
+        Long listingId = createListing(host, "Para apagar", 3);
+        createBooking(createUser("Cliente"), listingId, LocalDate.now().plusDays(10));
+        assertMaxStatements(16, () -> listingService.deleteListing(listingId, host));
+    }
+
+    @Test
+    void getListingsForHost() {
+        User client = createUser("Cliente");
+        for (int i = 0; i < 5; i++) {
+            Long listingId = createListing(host, "Listing " + i, 2);
+            createBooking(client, listingId, LocalDate.now().plusDays(10));
+        }
+        assertMaxStatements(3, () -> listingService.getListingsForHost(host));
+    }
+
+    @Test
+    void addImageToListing() {
+        Long listingId = createListing(host, "Com imagens", 2);
+        when(storageService.uploadFile(any())).thenReturn(imageUrl("upload"));
+        MockMultipartFile file = new MockMultipartFile("file", "foto.jpg", "image/jpeg", new byte[]{1, 2, 3});
+        assertMaxStatements(4, () -> listingService.addImageToListing(listingId, file, host));
+    }
+
+    @Test
+    void addVideoToListing() {
+        Long listingId = createListing(host, "Com vídeo", 0);
+        when(storageService.uploadFile(any())).thenReturn(imageUrl("video"));
+        MockMultipartFile file = new MockMultipartFile("file", "video.mp4", "video/mp4", new byte[]{1, 2, 3});
+        assertMaxStatements(3, () -> listingService.addVideoToListing(listingId, file, host));
+    }
+
+    @Test
+    void checkListingOwnership() {
+        Long listingId = createListing(host, "Dono", 0);
+        assertMaxStatements(1, () -> listingService.checkListingOwnership(listingId, host));
+    }
+
+    @Test
+    void attachImageToListing() {
+        Long listingId = createListing(host, "Anexar imagem", 2);
+        assertMaxStatements(4, () -> listingService.attachImageToListing(listingId, imageUrl("anexo"), host));
+    }
+
+    @Test
+    void attachVideoToListing() {
+        Long listingId = createListing(host, "Anexar vídeo", 0);
+        assertMaxStatements(3, () -> listingService.attachVideoToListing(listingId, imageUrl("anexo-video"), host));
+    }
+
+    @Test
+    void searchListings() {
+        String token = "pesquisa" + UUID.randomUUID().toString().replace("-", "");
+        for (int i = 0; i < 3; i++) {
+            listingService.createListing(request(token + " " + i, List.of(imageUrl(token + i))), host);
+        }
+        List<ListingResponseDTO> results = assertMaxStatements(2, () -> listingService.searchListings(token));
+        assertThat(results).isNotEmpty();
+    }
+
+    private ListingRequestDTO request(String title, List<String> imageUrls) {
+        ListingRequestDTO request = new ListingRequestDTO();
+        request.setTitle(title);
+        request.setDescription("Descrição");
+        request.setLocation("Lisboa");
+        request.setPrice(price(120));
+        request.setMaxGuests(8);
+        request.setImageUrls(imageUrls);
+        return request;
+    }
+
+    private static String imageUrl(String name) {
+        return "http://localhost:9000/party-listings/test-" + name + ".jpg";
+    }
+
+    private static String existingImageUrl(Long listingId, int index) {
+        return "http://localhost:9000/party-listings/test-" + listingId + "-" + index + ".jpg";
+    }
+}
@@ -0,0 +1,44 @@
+package com.party.backend.support;
+
+import com.party.backend.config.QueryCounter;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Guarda contra N+1: falha se a chamada executar mais statements SQL do que o máximo indicado.
+ * Conta tudo o que corre na thread do teste, incluindo o commit da transação do serviço.
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    public static <T> T assertMaxStatements(int max, Supplier<T> call) {
+        T result;
+        int statements;
+        try (QueryCounter.Scope scope = QueryCounter.start()) {
+            result = call.get();
+            statements = scope.getStatementCount();
+        }
+        if (statements > max) {
+            fail("Esperados no máximo " + max + " statements SQL, foram executados " + statements);
+        }
+        return result;
+    }
+
+    public static void assertMaxStatements(int max, Runnable call) {
+        assertMaxStatements(max, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public static int countStatements(Runnable call) {
+        try (QueryCounter.Scope scope = QueryCounter.start()) {
+            call.run();
+            return scope.getStatementCount();
+        }
+    }
+}
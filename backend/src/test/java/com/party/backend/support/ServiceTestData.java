@@ -0,0 +1,106 @@
+package com.party.backend.support;
+
+import com.party.backend.model.Amenity;
+import com.party.backend.model.User;
+import com.party.backend.model.enums.Role;
+import com.party.backend.repository.AmenityRepository;
+import com.party.backend.repository.ListingSearchRepository;
+import com.party.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Base dos testes de contagem de queries: cria utilizadores, listings, reservas e comodidades diretamente na BD
+ * (fora da contagem de statements) e apaga tudo no fim de cada teste.
+ */
+@SpringBootTest
+public abstract class ServiceTestData {
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected AmenityRepository amenityRepository;
+
+    @Autowired
+    protected ListingSearchRepository listingSearchRepository;
+
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<Integer> amenityIds = new ArrayList<>();
+
+    protected User createUser(String firstName) {
+        User user = new User();
+        user.setFirstName(firstName);
+        user.setLastName("Teste");
+        user.setEmail(firstName.toLowerCase() + "-" + UUID.randomUUID() + "@party.test");
+        user.setPassword("{noop}password");
+        user.setRole(Role.USER);
+        User saved = userRepository.save(user);
+        userIds.add(saved.getId());
+        return saved;
+    }
+
+    protected Integer createAmenity() {
+        Amenity amenity = new Amenity();
+        amenity.setName("Comodidade " + UUID.randomUUID());
+        Integer id = amenityRepository.save(amenity).getId();
+        amenityIds.add(id);
+        return id;
+    }
+
+    protected Long createListing(User host, String title, int images) {
+        Long listingId = jdbcTemplate.queryForObject("SELECT nextval('listing_id_seq')", Long.class);
+        jdbcTemplate.update("INSERT INTO listing (id, host_id, title, description, location, price, rating, max_guests, enabled, created_at) " +
+                "VALUES (?, ?, ?, 'Descrição', 'Lisboa', 100, 0, 10, true, now())", listingId, host.getId(), title);
+        for (int i = 0; i < images; i++) {
+            Long imageId = jdbcTemplate.queryForObject("SELECT nextval('listing_image_id_seq')", Long.class);
+            jdbcTemplate.update("INSERT INTO listing_image (id, listing_id, image_url, is_cover) VALUES (?, ?, ?, ?)",
+                    imageId, listingId, "http://localhost:9000/party-listings/test-" + listingId + "-" + i + ".jpg", i == 0);
+        }
+        return listingId;
+    }
+
+    protected Long createBooking(User client, Long listingId, LocalDate checkIn) {
+        Long bookingId = jdbcTemplate.queryForObject("SELECT nextval('booking_id_seq')", Long.class);
+        jdbcTemplate.update("INSERT INTO booking (id, user_id, listing_id, check_in_date, check_out_date, total_price, status, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, 200, 'PENDING', now())", bookingId, client.getId(), listingId, checkIn, checkIn.plusDays(2));
+        return bookingId;
+    }
+
+    protected Long createChatMessage(Long bookingId, User sender, String content) {
+        Long messageId = jdbcTemplate.queryForObject("SELECT nextval('chat_message_id_seq')", Long.class);
+        jdbcTemplate.update("INSERT INTO chat_message (id, booking_id, sender_id, content, timestamp) VALUES (?, ?, ?, ?, now())",
+                messageId, bookingId, sender.getId(), content);
+        return messageId;
+    }
+
+    protected static BigDecimal price(long value) {
+        return BigDecimal.valueOf(value);
+    }
+
+    @AfterEach
+    void deleteTestData() {
+        for (Long userId : userIds) {
+            jdbcTemplate.queryForList("SELECT id FROM listing WHERE host_id = ?", Long.class, userId)
+                    .forEach(listingSearchRepository::deleteById);
+            jdbcTemplate.update("DELETE FROM booking WHERE user_id = ? OR listing_id IN (SELECT id FROM listing WHERE host_id = ?)",
+                    userId, userId);
+            jdbcTemplate.update("DELETE FROM listing WHERE host_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        }
+        amenityIds.forEach(amenityRepository::deleteById);
+        userIds.clear();
+        amenityIds.clear();
+    }
+}
@@ -19,7 +19,7 @@ type BookingConversation = {
 };
 
 export default function UnifiedChatPage() {
-    const { token, isAuthenticated } = useAuth();
+    const { authFetch, isAuthenticated } = useAuth();
     const router = useRouter();
     const searchParams = useSearchParams();
 
@@ -36,18 +36,14 @@ export default function UnifiedChatPage() {
         }
 
         fetchConversations();
-    }, [isAuthenticated, token]);
+    }, [isAuthenticated, authFetch]);
 
     const fetchConversations = async () => {
         setIsLoading(true);
         setError(null);
         try {
             // Busca todas as reservas do usuário (tanto como cliente quanto como host)
-            const res = await fetch('/api/bookings/conversations', {
-                headers: {
-                    'Authorization': `Bearer ${token}`,
-                },
-            });
+            const res = await authFetch('/api/bookings/conversations');
 
             if (!res.ok) {
                 throw new Error('Não foi possível carregar as conversas');
@@ -10,7 +10,7 @@ import Image from "next/image";
 import { Sparkles, MapPin, DollarSign, Users, Image as ImageIcon, Video, CheckCircle, X } from 'lucide-react';
 
 export default function CreateListingPage() {
-    const { token, isAuthenticated, logout } = useAuth();
+    const { authFetch, isAuthenticated, logout } = useAuth();
     const router = useRouter();
 
     const [title, setTitle] = useState('');
@@ -88,11 +88,10 @@ export default function CreateListingPage() {
         }
 
         try {
-            const res = await fetch('/api/listings', {
+            const res = await authFetch('/api/listings', {
                 method: 'POST',
                 headers: {
-                    'Content-Type': 'application/json',
-                    'Authorization': `Bearer ${token}`
+                    'Content-Type': 'application/json'
                 },
                 body: JSON.stringify({
                     title,
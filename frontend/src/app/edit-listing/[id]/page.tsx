@@ -10,7 +10,7 @@ import Image from 'next/image';
 import { Edit, Loader2 } from 'lucide-react';
 
 export default function EditListingPage() {
-    const { token, isAuthenticated, logout } = useAuth();
+    const { authFetch, isAuthenticated, logout } = useAuth();
     const router = useRouter();
     const params = useParams();
     const listingId = params.id as string;
@@ -47,9 +47,7 @@ export default function EditListingPage() {
                 const amenitiesData: AmenityDTO[] = await amenitiesRes.json();
                 setAllAmenities(amenitiesData);
 
-                const listingRes = await fetch(`/api/listings/${listingId}`, {
-                    headers: { 'Authorization': `Bearer ${token}` }
-                });
+                const listingRes = await authFetch(`/api/listings/${listingId}`);
                 if (!listingRes.ok) {
                     setError('Falha ao buscar dados do espaço');
                     return;
@@ -78,7 +76,7 @@ export default function EditListingPage() {
         };
 
         void fetchListingData();
-    }, [isAuthenticated, router, listingId, token]);
+    }, [isAuthenticated, router, listingId, authFetch]);
 
     const handleAmenityChange = (amenityId: number) => {
         setSelectedAmenities((prev) => {
@@ -105,11 +103,10 @@ export default function EditListingPage() {
             return;
         }
         try {
-            const res = await fetch(`/api/listings/${listingId}`, {
+            const res = await authFetch(`/api/listings/${listingId}`, {
                 method: 'PUT',
                 headers: {
-                    'Content-Type': 'application/json',
-                    'Authorization': `Bearer ${token}`
+                    'Content-Type': 'application/json'
                 },
                 body: JSON.stringify({
                     title, description, location, price, maxGuests,
@@ -32,7 +32,7 @@ export default function LoginPage() {
 
             const data = await res.json();
 
-            login(data.token);
+            login(data.token, data.refreshToken);
 
         } catch (err: any) {
             setError(err.message);
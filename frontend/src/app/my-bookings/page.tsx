@@ -17,7 +17,7 @@ type BookingResponse = {
 };
 
 export default function MyBookingsPage() {
-    const { token, isAuthenticated, logout } = useAuth();
+    const { authFetch, isAuthenticated, logout } = useAuth();
     const [bookings, setBookings] = useState<BookingResponse[]>([]);
     const [isLoading, setIsLoading] = useState(true);
     const [error, setError] = useState<string | null>(null);
@@ -30,11 +30,7 @@ export default function MyBookingsPage() {
         setIsLoading(true);
         setError(null);
         try {
-            const res = await fetch('/api/bookings/my-bookings', {
-                headers: {
-                    'Authorization': `Bearer ${token}`,
-                },
-            });
+            const res = await authFetch('/api/bookings/my-bookings');
             if (res.status === 403) {
                 logout();
                 return;
@@ -57,20 +53,17 @@ export default function MyBookingsPage() {
             return;
         }
         fetchBookings();
-    }, [isAuthenticated, token]);
+    }, [isAuthenticated, authFetch]);
 
     const handleDeleteBooking = async (bookingId: number) => {
-        if (!token) {
+        if (!isAuthenticated) {
             router.push('/login');
             return;
         }
         setDeletingId(bookingId);
         try {
-            const response = await fetch(`/api/bookings/${bookingId}`, {
+            const response = await authFetch(`/api/bookings/${bookingId}`, {
                 method: 'DELETE',
-                headers: {
-                    'Authorization': `Bearer ${token}`
-                }
             });
             if (response.status === 403) {
                 logout();
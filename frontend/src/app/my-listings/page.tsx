@@ -24,7 +24,7 @@ type HostListing = {
 };
 
 export default function MyListingsPage() {
-    const { token, isAuthenticated, logout } = useAuth();
+    const { authFetch, isAuthenticated, logout } = useAuth();
     const [listings, setListings] = useState<HostListing[]>([]);
     const [isLoading, setIsLoading] = useState(true);
     const [error, setError] = useState<string | null>(null);
@@ -40,11 +40,7 @@ export default function MyListingsPage() {
             setIsLoading(true);
             setError(null);
             try {
-                const res = await fetch('/api/listings/my-listings', {
-                    headers: {
-                        'Authorization': `Bearer ${token}`,
-                    },
-                });
+                const res = await authFetch('/api/listings/my-listings');
 
                 if (res.status === 403) { logout(); return; }
                 if (!res.ok) throw new Error('Não foi possível buscar os seus espaços.');
@@ -60,7 +56,7 @@ export default function MyListingsPage() {
         };
 
         fetchHostListings();
-    }, [isAuthenticated, token, router, logout]);
+    }, [isAuthenticated, authFetch, router, logout]);
 
     const handleDeleteSuccess = (deletedListingId: number) => {
         setListings((prevListings) =>
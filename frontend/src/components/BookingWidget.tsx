@@ -29,7 +29,7 @@ export default function BookingWidget({
                                           isAuthenticated,
                                           isOwner
                                       }: BookingWidgetProps) {
-    const { token } = useAuth()
+    const { authFetch } = useAuth()
     const router = useRouter()
     const [guests, setGuests] = useState(Math.min(50, maxGuests))
     const [date, setDate] = useState("")
@@ -65,11 +65,10 @@ export default function BookingWidget({
         const checkOutDate = checkOutObj.toISOString().split('T')[0]
 
         try {
-            const res = await fetch("/api/bookings", {
+            const res = await authFetch("/api/bookings", {
                 method: "POST",
                 headers: {
-                    "Content-Type": "application/json",
-                    "Authorization": `Bearer ${token}`
+                    "Content-Type": "application/json"
                 },
                 body: JSON.stringify({
                     listingId,
@@ -1,6 +1,6 @@
 'use client';
 
-import { useState, useRef, useEffect } from 'react';
+import { useState, useRef, useEffect, useLayoutEffect } from 'react';
 import { useChat } from '@/hooks/useChat';
 import { useAuth } from '@/context/AuthContext';
 
@@ -9,7 +9,7 @@ type ChatBoxProps = {
 };
 
 export default function ChatBox({ roomId }: ChatBoxProps) {
-    const { messages, isConnected, sendMessage, error } = useChat(roomId);
+    const { messages, isConnected, sendMessage, error, hasMore, isLoadingOlder, loadOlder } = useChat(roomId);
     const { token } = useAuth();
 
     const [newMessage, setNewMessage] = useState('');
@@ -24,10 +24,34 @@ export default function ChatBox({ roomId }: ChatBoxProps) {
     }
 
     const messagesEndRef = useRef<null | HTMLDivElement>(null);
-    const scrollToBottom = () => {
+    const containerRef = useRef<null | HTMLDivElement>(null);
+    // Altura antes de carregar mensagens antigas, para manter a posição em vez de saltar para o fim.
+    const heightBeforeOlderRef = useRef<number | null>(null);
+
+    useLayoutEffect(() => {
+        const container = containerRef.current;
+        if (container && heightBeforeOlderRef.current !== null) {
+            container.scrollTop = container.scrollHeight - heightBeforeOlderRef.current;
+            heightBeforeOlderRef.current = null;
+            return;
+        }
         messagesEndRef.current?.scrollIntoView({ behavior: "smooth" });
+    }, [messages]);
+
+    useEffect(() => {
+        if (!isLoadingOlder) {
+            heightBeforeOlderRef.current = null;
+        }
+    }, [isLoadingOlder]);
+
+    const handleScroll = () => {
+        const container = containerRef.current;
+        if (!container || !hasMore || isLoadingOlder || container.scrollTop > 40) {
+            return;
+        }
+        heightBeforeOlderRef.current = container.scrollHeight;
+        loadOlder();
     };
-    useEffect(scrollToBottom, [messages]);
 
     const handleSendMessage = (e: React.FormEvent) => {
         e.preventDefault();
@@ -45,7 +69,10 @@ export default function ChatBox({ roomId }: ChatBoxProps) {
                 <span className={`h-3 w-3 rounded-full ${isConnected ? 'bg-green-500' : 'bg-red-500'}`}></span>
             </div>
 
-            <div className="flex-1 p-4 overflow-y-auto bg-gray-50">
+            <div ref={containerRef} onScroll={handleScroll} className="flex-1 p-4 overflow-y-auto bg-gray-50">
+                {isLoadingOlder && (
+                    <p className="text-center text-xs text-gray-500 mb-3">A carregar mensagens anteriores...</p>
+                )}
                 {messages.map((msg, index) => {
                     const isMyMessage = msg.senderId === currentUserId;
 
@@ -9,7 +9,7 @@ type DeleteButtonProps = {
 };
 
 export default function DeleteListingButton({ listingId, onDeleteSuccess }: DeleteButtonProps) {
-    const { token, logout } = useAuth();
+    const { authFetch, logout } = useAuth();
     const [isLoading, setIsLoading] = useState(false);
     const [error, setError] = useState<string | null>(null);
 
@@ -22,11 +22,8 @@ export default function DeleteListingButton({ listingId, onDeleteSuccess }: Dele
         setError(null);
 
         try {
-            const res = await fetch(`/api/listings/${listingId}`, {
+            const res = await authFetch(`/api/listings/${listingId}`, {
                 method: 'DELETE',
-                headers: {
-                    'Authorization': `Bearer ${token}`
-                }
             });
 
             if (res.status === 403) { logout(); return; }
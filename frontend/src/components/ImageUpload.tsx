@@ -12,7 +12,7 @@ export default function ImageUpload({ onUploadSuccess }: ImageUploadProps) {
     const [file, setFile] = useState<File | null>(null);
     const [error, setError] = useState<string | null>(null);
     const [isUploading, setIsUploading] = useState(false);
-    const { token, logout } = useAuth();
+    const { authFetch, logout } = useAuth();
     const router = useRouter();
 
     const handleFileChange = (e: React.ChangeEvent<HTMLInputElement>) => {
@@ -34,11 +34,8 @@ export default function ImageUpload({ onUploadSuccess }: ImageUploadProps) {
         formData.append('file', file);
 
         try {
-            const res = await fetch('/api/media/upload', {
+            const res = await authFetch('/api/media/upload', {
                 method: 'POST',
-                headers: {
-                    'Authorization': `Bearer ${token}`,
-                },
                 body: formData,
             });
 
@@ -12,7 +12,7 @@ export default function VideoUpload({ onUploadSuccess }: VideoUploadProps) {
     const [file, setFile] = useState<File | null>(null);
     const [error, setError] = useState<string | null>(null);
     const [isUploading, setIsUploading] = useState(false);
-    const { token, logout } = useAuth();
+    const { authFetch, logout } = useAuth();
     const router = useRouter();
 
     const handleFileChange = (e: React.ChangeEvent<HTMLInputElement>) => {
@@ -35,11 +35,8 @@ export default function VideoUpload({ onUploadSuccess }: VideoUploadProps) {
         formData.append('file', file);
 
         try {
-            const res = await fetch('/api/media/upload', {
+            const res = await authFetch('/api/media/upload', {
                 method: 'POST',
-                headers: {
-                    'Authorization': `Bearer ${token}`,
-                },
                 body: formData,
             });
 
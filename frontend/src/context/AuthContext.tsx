@@ -20,8 +20,10 @@ export type Notification = {
 
 interface AuthContextType {
     token: string | null;
-    login: (token: string) => void;
+    login: (token: string, refreshToken: string) => void;
     logout: () => void;
+    authFetch: (input: string, init?: RequestInit) => Promise<Response>;
+    getAccessToken: () => string | null;
     isAuthenticated: boolean;
     notifications: Notification[];
     clearNotifications: () => void;
@@ -32,28 +34,164 @@ const AuthContext = createContext<AuthContextType | null>(null);
 const API_BASE_URL = process.env.NEXT_PUBLIC_API_BASE_URL || 'http://localhost:8080';
 const SOCKET_URL = `${API_BASE_URL}/ws`;
 
+// Renova o access token um minuto antes de expirar.
+const REFRESH_MARGIN_MS = 60_000;
+
+const tokenExpiry = (jwt: string): number | null => {
+    try {
+        const payload = JSON.parse(atob(jwt.split('.')[1].replace(/-/g, '+').replace(/_/g, '/')));
+        return typeof payload.exp === 'number' ? payload.exp * 1000 : null;
+    } catch {
+        return null;
+    }
+};
+
 export function AuthProvider({ children }: { children: ReactNode }) {
     const [token, setToken] = useState<string | null>(null);
     const [loading, setLoading] = useState(true);
     const router = useRouter();
     const [notifications, setNotifications] = useState<Notification[]>([]);
     const stompClientRef = useRef<Client | null>(null);
+    const tokenRef = useRef<string | null>(null);
+    const refreshTokenRef = useRef<string | null>(null);
+    const refreshInFlightRef = useRef<Promise<string | null> | null>(null);
 
     const isAuthenticated = !!token;
 
+    const storeTokens = useCallback((newToken: string | null, newRefreshToken: string | null) => {
+        tokenRef.current = newToken;
+        refreshTokenRef.current = newRefreshToken;
+        if (newToken) {
+            localStorage.setItem('jwtToken', newToken);
+        } else {
+            localStorage.removeItem('jwtToken');
+        }
+        if (newRefreshToken) {
+            localStorage.setItem('refreshToken', newRefreshToken);
+        } else {
+            localStorage.removeItem('refreshToken');
+        }
+        setToken(newToken);
+    }, []);
+
     useEffect(() => {
         const storedToken = localStorage.getItem('jwtToken');
+        const storedRefreshToken = localStorage.getItem('refreshToken');
         if (storedToken) {
+            tokenRef.current = storedToken;
+            refreshTokenRef.current = storedRefreshToken;
             setToken(storedToken);
         }
         setLoading(false);
     }, []);
 
+    const logout = useCallback(() => {
+        const accessToken = tokenRef.current;
+        const refreshToken = refreshTokenRef.current;
+        if (accessToken) {
+            // Melhor esforço: revoga o access token e o refresh token no servidor.
+            fetch('/api/auth/logout', {
+                method: 'POST',
+                headers: {
+                    'Content-Type': 'application/json',
+                    'Authorization': `Bearer ${accessToken}`
+                },
+                body: JSON.stringify({ refreshToken }),
+            }).catch(() => undefined);
+        }
+        storeTokens(null, null);
+
+        if (stompClientRef.current) {
+            stompClientRef.current.deactivate();
+            stompClientRef.current = null;
+        }
+        setNotifications([]);
+
+        router.push('/login');
+    }, [router, storeTokens]);
+
+    // Pedidos concorrentes partilham a mesma renovação: o refresh token é de uso único.
+    const refreshAccessToken = useCallback((): Promise<string | null> => {
+        if (refreshInFlightRef.current) {
+            return refreshInFlightRef.current;
+        }
+        const refreshToken = refreshTokenRef.current;
+        if (!refreshToken) {
+            return Promise.resolve(null);
+        }
+        const pending = (async () => {
+            try {
+                const res = await fetch('/api/auth/refresh', {
+                    method: 'POST',
+                    headers: { 'Content-Type': 'application/json' },
+                    body: JSON.stringify({ refreshToken }),
+                });
+                if (!res.ok) {
+                    return null;
+                }
+                const data = await res.json();
+                storeTokens(data.token, data.refreshToken);
+                return data.token as string;
+            } catch {
+                return null;
+            } finally {
+                refreshInFlightRef.current = null;
+            }
+        })();
+        refreshInFlightRef.current = pending;
+        return pending;
+    }, [storeTokens]);
+
+    const getAccessToken = useCallback(() => tokenRef.current, []);
+
+    const authFetch = useCallback(async (input: string, init: RequestInit = {}): Promise<Response> => {
+        const withToken = (accessToken: string | null) => {
+            const headers = new Headers(init.headers);
+            if (accessToken) {
+                headers.set('Authorization', `Bearer ${accessToken}`);
+            }
+            return fetch(input, { ...init, headers });
+        };
+
+        const res = await withToken(tokenRef.current);
+        if (res.status !== 401 || !refreshTokenRef.current) {
+            return res;
+        }
+        const renewed = await refreshAccessToken();
+        if (!renewed) {
+            logout();
+            return res;
+        }
+        return withToken(renewed);
+    }, [refreshAccessToken, logout]);
+
+    // Renovação proativa: agenda o refresh pouco antes do exp do access token.
     useEffect(() => {
-        if(isAuthenticated && token && !stompClientRef.current){
+        if (!token) {
+            return;
+        }
+        const expiresAt = tokenExpiry(token);
+        if (expiresAt === null) {
+            return;
+        }
+        const delay = Math.max(expiresAt - Date.now() - REFRESH_MARGIN_MS, 0);
+        const timer = setTimeout(async () => {
+            const renewed = await refreshAccessToken();
+            if (!renewed && tokenRef.current === token) {
+                logout();
+            }
+        }, delay);
+        return () => clearTimeout(timer);
+    }, [token, refreshAccessToken, logout]);
+
+    useEffect(() => {
+        if(isAuthenticated && !stompClientRef.current){
             const client = new Client({
                 webSocketFactory: () => new SockJS(SOCKET_URL),
-                connectHeaders: { Authorization: `Bearer ${token}` },
+                // Lido a cada (re)ligação para usar sempre o access token mais recente.
+                beforeConnect: () => {
+                    client.connectHeaders = { Authorization: `Bearer ${tokenRef.current}` };
+                },
                 debug: (str) => { console.log(new Date(), str); },
                 reconnectDelay: 5000,
             });
@@ -77,26 +215,12 @@ export function AuthProvider({ children }: { children: ReactNode }) {
             stompClientRef.current = null;
             console.log("authprovider: desconectado do web socket")
         }
-    }, [isAuthenticated, token]);
+    }, [isAuthenticated]);
 
-    const login = useCallback((newToken: string) => {
-        setToken(newToken);
-        localStorage.setItem('jwtToken', newToken);
+    const login = useCallback((newToken: string, newRefreshToken: string) => {
+        storeTokens(newToken, newRefreshToken);
         router.push('/');
-    }, [router]);
-
-    const logout = useCallback(() => {
-        setToken(null);
-        localStorage.removeItem('jwtToken');
-
-        if (stompClientRef.current) {
-            stompClientRef.current.deactivate();
-            stompClientRef.current = null;
-        }
-        setNotifications([]);
-
-        router.push('/login');
-    }, [router]);
+    }, [router, storeTokens]);
 
     const clearNotifications = useCallback(() => {
         setNotifications([]);
@@ -111,6 +235,8 @@ export function AuthProvider({ children }: { children: ReactNode }) {
             token,
             login,
             logout,
+            authFetch,
+            getAccessToken,
             isAuthenticated,
             notifications,
             clearNotifications
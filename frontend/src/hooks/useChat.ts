@@ -1,6 +1,6 @@
 'use client';
 
-import { useState, useEffect, useRef } from 'react';
+import { useState, useEffect, useRef, useCallback } from 'react';
 import { Client, IMessage, StompSubscription } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
 import { useAuth } from '@/context/AuthContext';
@@ -9,6 +9,7 @@ export interface ChatMessage {
     senderName: string;
     senderId: number;
     content: string;
+    timestamp?: string;
 }
 
 export interface UseChatReturn {
@@ -16,32 +17,37 @@ export interface UseChatReturn {
     isConnected: boolean;
     sendMessage: (content: string) => void;
     error: string | null;
+    hasMore: boolean;
+    isLoadingOlder: boolean;
+    loadOlder: () => Promise<void>;
 }
 
 const API_BASE_URL = process.env.NEXT_PUBLIC_API_BASE_URL || 'http://localhost:8080';
 const SOCKET_URL = `${API_BASE_URL}/ws`;
+// O backend devolve as mensagens mais recentes por página; as anteriores pedem-se com before=.
+const PAGE_SIZE = 50;
 
 export const useChat = (roomId: string): UseChatReturn => {
-    const { token, isAuthenticated, logout } = useAuth();
+    const { token, isAuthenticated, logout, authFetch, getAccessToken } = useAuth();
     const [messages, setMessages] = useState<ChatMessage[]>([]);
     const [isConnected, setIsConnected] = useState(false);
     const [error, setError] = useState<string | null>(null);
+    const [hasMore, setHasMore] = useState(false);
+    const [isLoadingOlder, setIsLoadingOlder] = useState(false);
 
+    const messagesRef = useRef<ChatMessage[]>([]);
+    const loadingOlderRef = useRef(false);
     const stompClientRef = useRef<Client | null>(null);
     const subscriptionRef = useRef<StompSubscription | null>(null);
 
     useEffect(() => {
-        if (!isAuthenticated || !roomId || !token) {
+        if (!isAuthenticated || !roomId) {
             return;
         }
 
         const fetchHistory = async () => {
             try {
-                const res = await fetch(`${API_BASE_URL}/api/chat/${roomId}`, {
-                    headers: {
-                        'Authorization': `Bearer ${token}`
-                    }
-                });
+                const res = await authFetch(`${API_BASE_URL}/api/chat/${roomId}?size=${PAGE_SIZE}`);
 
                 if (res.status === 403) {
                     logout();
@@ -52,7 +58,9 @@ export const useChat = (roomId: string): UseChatReturn => {
                 }
 
                 const history = await res.json() as ChatMessage[];
+                messagesRef.current = history;
                 setMessages(history);
+                setHasMore(history.length >= PAGE_SIZE);
 
             } catch (err: any) {
                 setError(err.message);
@@ -61,7 +69,9 @@ export const useChat = (roomId: string): UseChatReturn => {
 
         const client = new Client({
             webSocketFactory: () => new SockJS(SOCKET_URL),
-            connectHeaders: { Authorization: `Bearer ${token}` },
+            beforeConnect: () => {
+                client.connectHeaders = { Authorization: `Bearer ${getAccessToken()}` };
+            },
             debug: (str) => { console.log(new Date(), str); },
             reconnectDelay: 5000,
         });
@@ -75,7 +85,11 @@ export const useChat = (roomId: string): UseChatReturn => {
                 `/topic/${roomId}`,
                 (message: IMessage) => {
                     const newMessage = JSON.parse(message.body) as ChatMessage;
-                    setMessages((prevMessages) => [...prevMessages, newMessage]);
+                    setMessages((prevMessages) => {
+                        const next = [...prevMessages, newMessage];
+                        messagesRef.current = next;
+                        return next;
+                    });
                 }
             );
         };
@@ -100,7 +114,36 @@ export const useChat = (roomId: string): UseChatReturn => {
                 setIsConnected(false);
             }
         };
-    }, [roomId, isAuthenticated, token, logout]);
+    }, [roomId, isAuthenticated, logout, authFetch, getAccessToken]);
+
+    const loadOlder = useCallback(async () => {
+        // As mensagens recebidas por STOMP não trazem timestamp; o cursor é a mais antiga do histórico.
+        const oldest = messagesRef.current.find(message => message.timestamp);
+        if (loadingOlderRef.current || !oldest?.timestamp) {
+            return;
+        }
+        loadingOlderRef.current = true;
+        setIsLoadingOlder(true);
+        try {
+            const res = await authFetch(
+                `${API_BASE_URL}/api/chat/${roomId}?before=${encodeURIComponent(oldest.timestamp)}&size=${PAGE_SIZE}`);
+            if (!res.ok) {
+                throw new Error("Falha ao buscar mensagens anteriores.");
+            }
+            const older = await res.json() as ChatMessage[];
+            setMessages((prevMessages) => {
+                const next = [...older, ...prevMessages];
+                messagesRef.current = next;
+                return next;
+            });
+            setHasMore(older.length >= PAGE_SIZE);
+        } catch (err: any) {
+            setError(err.message);
+        } finally {
+            loadingOlderRef.current = false;
+            setIsLoadingOlder(false);
+        }
+    }, [roomId, authFetch]);
 
     const sendMessage = (content: string) => {
         if (!stompClientRef.current || !isConnected || !token) {
@@ -129,5 +172,5 @@ export const useChat = (roomId: string): UseChatReturn => {
         }
     };
 
-    return { messages, isConnected, sendMessage, error };
+    return { messages, isConnected, sendMessage, error, hasMore, isLoadingOlder, loadOlder };
 };
\ No newline at end of file
@@ -8,30 +8,30 @@ import { useAuth } from '@/context/AuthContext';
 export type Notification = {
     message: string;
     link: string;
+    count?: number;
     timestamp: number;
 };
 
 export function useNotifications() {
-    const { token, isAuthenticated } = useAuth();
+    const { isAuthenticated, getAccessToken } = useAuth();
     const [notifications, setNotifications] = useState<Notification[]>([]);
     const [unreadCount, setUnreadCount] = useState(0);
     const [isConnected, setIsConnected] = useState(false);
     const stompClientRef = useRef<Client | null>(null);
 
     useEffect(() => {
-        if (!isAuthenticated || !token) {
+        if (!isAuthenticated) {
             console.log('Not authenticated, skipping WebSocket connection');
             return;
         }
 
         console.log('🔌 Attempting to connect to WebSocket...');
 
-        const socket = new SockJS('http://localhost:8080/ws');
-
         const stompClient = new Client({
-            webSocketFactory: () => socket,
-            connectHeaders: {
-                Authorization: `Bearer ${token}`
+            // Um SockJS novo por tentativa: o reconnect não pode reutilizar um socket fechado.
+            webSocketFactory: () => new SockJS('http://localhost:8080/ws'),
+            beforeConnect: () => {
+                stompClient.connectHeaders = { Authorization: `Bearer ${getAccessToken()}` };
             },
             debug: (str) => {
                 console.log('STOMP Debug:', str);
@@ -45,21 +45,27 @@ export function useNotifications() {
 
                 stompClient.subscribe('/user/topic/notification', (message) => {
                     try {
-                        const notification = JSON.parse(message.body);
-                        console.log('📬 Received notification:', notification);
+                        const payload = JSON.parse(message.body);
+                        const received: { message: string; link: string; count?: number }[] =
+                            Array.isArray(payload) ? payload : [payload];
+                        console.log('📬 Received notifications:', received);
 
-                        const newNotification: Notification = {
+                        const newNotifications: Notification[] = received.map(notification => ({
                             ...notification,
                             timestamp: Date.now()
-                        };
+                        }));
 
-                        setNotifications(prev => [newNotification, ...prev]);
-                        setUnreadCount(prev => prev + 1);
+                        setNotifications(prev => [...newNotifications, ...prev]);
+                        setUnreadCount(prev => prev + received.reduce((total, n) => total + (n.count ?? 1), 0));
 
                         if (Notification.permission === 'granted') {
-                            new Notification('Nova Notificação', {
-                                body: notification.message,
-                                icon: '/favicon.ico'
+                            received.forEach(notification => {
+                                new Notification('Nova Notificação', {
+                                    body: notification.count && notification.count > 1
+                                        ? `${notification.message} (+${notification.count - 1})`
+                                        : notification.message,
+                                    icon: '/favicon.ico'
+                                });
                             });
                         }
                     } catch (error) {
@@ -99,7 +105,7 @@ export function useNotifications() {
                 stompClientRef.current.deactivate();
             }
         };
-    }, [isAuthenticated, token]);
+    }, [isAuthenticated, getAccessToken]);
 
     const clearNotifications = useCallback(() => {
         setNotifications([]);